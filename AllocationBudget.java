@@ -0,0 +1,233 @@
+package project Mountain;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that the solvers stay within a budget of bytes allocated per rest stop visited.
+ * Mountains are generated from fixed seeds, complete ones and ones of random shape in which most rest stops lie on
+ * full-height paths, so that every solver visits many rest stops. Each solver is warmed up so that the measurement is not
+ * dominated by class loading and compilation, and the fewest bytes allocated over several runs is compared
+ * with the solver's budget, using the thread allocation counters behind {@link ClimbEvents#allocatedBytes()}.
+ * The number of rest stops visited is the one reported by {@link BSTMountain#solve(Deadline)}, since every
+ * solver walks the same full-height paths and stops at the same rest stops.
+ * Each run may also allocate a fixed amount, for its stacks and result, besides the budget per rest stop.
+ * A mountain whose search visits too few rest stops for that amount to be negligible is rejected as a failure,
+ * since it would hide allocations well over the budget.
+ * Prints one line per solver and mountain, and exits with status 1 if any budget is exceeded.
+ * Run it with {@code java AllocationBudget}.
+ *
+ * @author Leo Wu
+ */
+public class AllocationBudget {
+
+    /**
+     * Runs of each solver before measuring
+     */
+    private static final int WARMUP = 20;
+
+    /**
+     * Measured runs of each solver, of which the lowest allocation counts
+     */
+    private static final int RUNS = 5;
+
+    /**
+     * Bytes a run may allocate once, whatever the number of rest stops it visits
+     */
+    private static final long PER_RUN = 4096;
+
+    /**
+     * The fewest rest stops a search of a generated mountain must visit, so that {@link #PER_RUN} adds at most
+     * a quarter of a byte per rest stop, a sixteenth of the smallest budget
+     */
+    private static final long MIN_VISITED = 4 * PER_RUN;
+
+    /**
+     * Supplies a generated rest stop may have besides food, as written in a map file
+     */
+    private static final String[] SUPPLIES = {"food", "raft", "axe"};
+
+    /**
+     * Obstacles a generated rest stop may have, as written in a map file
+     */
+    private static final String[] OBSTACLES = {"river", "fallen tree"};
+
+    /**
+     * A solver under test, returning a value so that its work cannot be optimized away.
+     */
+    private interface Solver {
+        long run(BSTMountain mountain, OffHeapMountain offHeap);
+    }
+
+
+    public static void main(String[] args) {
+        if (ClimbEvents.allocatedBytes() < 0) {
+            System.err.println("This JVM does not measure allocated bytes per thread.");
+            System.exit(1);
+        }
+
+        List<BSTMountain> mountains = new ArrayList<>();
+        mountains.add(complete(16, new Random(1)));
+        mountains.add(complete(17, new Random(2)));
+        mountains.add(ragged(19, new Random(3)));
+        mountains.add(ragged(21, new Random(4)));
+
+        boolean withinBudget = true;
+        for (BSTMountain mountain : mountains) {
+            OffHeapMountain offHeap = new OffHeapMountain(1 << 16);
+            for (RestStop stop : preorder(mountain)) {
+                offHeap.add(stop);
+            }
+            long visited = mountain.solve(Deadline.none()).getVisited();
+            if (visited < MIN_VISITED) {
+                System.err.println("A generated mountain is too small to measure: " + mountain.size() + " rest stops, "
+                        + visited + " visited, at least " + MIN_VISITED + " needed");
+                withinBudget = false;
+                continue;
+            }
+
+            // Counting keeps one inventory per rest stop on the current path and builds no paths
+            withinBudget &= check("countFeasiblePaths", 128, mountain, offHeap, visited,
+                    (m, o) -> m.countFeasiblePaths());
+            // The compact form adds one int per rest stop of each feasible path
+            withinBudget &= check("compactFeasiblePaths", 256, mountain, offHeap, visited,
+                    (m, o) -> m.compactFeasiblePaths().size());
+            // Solving also builds a list of rest stops for each feasible path
+            withinBudget &= check("solve", 512, mountain, offHeap, visited,
+                    (m, o) -> m.solve(Deadline.none()).getPaths().size());
+            // The off-heap search only allocates its stacks, once per call
+            withinBudget &= check("OffHeapMountain.countFeasiblePaths", 4, mountain, offHeap, visited,
+                    (m, o) -> o.countFeasiblePaths());
+        }
+
+        if (!withinBudget) {
+            System.exit(1);
+        }
+    }
+
+
+    /**
+     * Measures the bytes a solver allocates per rest stop visited and prints them with its budget.
+     * @param name the name of the solver
+     * @param budget the most bytes the solver may allocate per rest stop visited, besides {@link #PER_RUN}
+     * @param mountain the mountain to solve
+     * @param offHeap the same mountain stored off the heap
+     * @param visited the number of rest stops a search of the mountain visits
+     * @param solver the solver
+     * @return true if the solver stayed within its budget
+     */
+    private static boolean check(String name, long budget, BSTMountain mountain, OffHeapMountain offHeap,
+                                 long visited, Solver solver) {
+        long result = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            result += solver.run(mountain, offHeap);
+        }
+        long allocated = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = ClimbEvents.allocatedBytes();
+            result += solver.run(mountain, offHeap);
+            allocated = Math.min(allocated, ClimbEvents.allocatedSince(start));
+        }
+        double perVisit = (double) allocated / visited;
+        boolean ok = allocated <= PER_RUN + budget * visited;
+        System.out.printf("%-5s %-34s %8d rest stops %8d visited %10.1f bytes/visit (budget %d, result %d)%n",
+                ok ? "OK" : "OVER", name, mountain.size(), visited, perVisit, budget, result / (WARMUP + RUNS));
+        return ok;
+    }
+
+    /**
+     * Generates a complete mountain whose rest stops carry enough food for most paths to reach the base.
+     * @param height the height of the mountain
+     * @param random the source of supplies
+     * @return the mountain
+     */
+    private static BSTMountain complete(int height, Random random) {
+        BSTMountain mountain = new BSTMountain();
+        addMiddle(mountain, 0, (1L << height) - 1, random);
+        return mountain;
+    }
+
+    /**
+     * Adds the rest stops numbered from low to high, exclusive, so that they form a complete subtree.
+     */
+    private static void addMiddle(BSTMountain mountain, long low, long high, Random random) {
+        // The ranges to add are kept on a list rather than recursing, as the other traversals of the tree do
+        List<long[]> ranges = new ArrayList<>();
+        ranges.add(new long[] {low, high});
+        while (!ranges.isEmpty()) {
+            long[] range = ranges.remove(ranges.size() - 1);
+            if (range[0] >= range[1]) {
+                continue;
+            }
+            long middle = (range[0] + range[1]) >>> 1;
+            mountain.add(restStop(middle, random));
+            ranges.add(new long[] {middle + 1, range[1]});
+            ranges.add(new long[] {range[0], middle});
+        }
+    }
+
+    /**
+     * Generates a mountain of random shape in which most rest stops lie on full-height paths. Every rest stop
+     * above the base has a child one level lower, on a random side, and its other child is one level lower too
+     * three times out of four, and otherwise lower still or missing.
+     * Rest stops are added in preorder, so that each one ends up at the place chosen for it.
+     * @param height the height of the mountain
+     * @param random the source of the shape and supplies
+     * @return the mountain
+     */
+    private static BSTMountain ragged(int height, Random random) {
+        BSTMountain mountain = new BSTMountain();
+        // Each subtree to add is the range of numbers its labels are taken from, exclusive, and its height
+        List<long[]> subtrees = new ArrayList<>();
+        subtrees.add(new long[] {0, 1L << 40, height});
+        while (!subtrees.isEmpty()) {
+            long[] subtree = subtrees.remove(subtrees.size() - 1);
+            long middle = (subtree[0] + subtree[1]) >>> 1;
+            mountain.add(restStop(middle, random));
+            int below = (int) subtree[2] - 1;
+            if (below < 0) {
+                continue;
+            }
+            // A height of -1 stands for a missing child
+            int other = random.nextInt(4) == 0 ? random.nextInt(below + 1) - 1 : below;
+            boolean fullLeft = random.nextBoolean();
+            int left = fullLeft ? below : other;
+            int right = fullLeft ? other : below;
+            if (right >= 0) {
+                subtrees.add(new long[] {middle + 1, subtree[1], right});
+            }
+            if (left >= 0) {
+                subtrees.add(new long[] {subtree[0], middle, left});
+            }
+        }
+        return mountain;
+    }
+
+    /**
+     * Generates a rest stop with a label that sorts by its number, food for the next step, and sometimes
+     * another supply or an obstacle, so that a good share of the paths reach the base.
+     */
+    private static RestStop restStop(long number, Random random) {
+        List<String> words = new ArrayList<>();
+        words.add(String.format("s%013d", number));
+        words.add("food");
+        if (random.nextInt(2) == 0) {
+            words.add(SUPPLIES[random.nextInt(SUPPLIES.length)]);
+        }
+        // Obstacles come after the supplies, as in a map file
+        if (random.nextInt(32) == 0) {
+            words.add(OBSTACLES[random.nextInt(OBSTACLES.length)]);
+        }
+        return new RestStop(String.join(" ", words).split(" "));
+    }
+
+    /**
+     * Returns the rest stops of a mountain in preorder, which rebuilds a mountain of the same shape.
+     */
+    private static List<RestStop> preorder(BSTMountain mountain) {
+        List<RestStop> stops = new ArrayList<>();
+        mountain.preorderIterator().forEachRemaining(stops::add);
+        return stops;
+    }
+}
@@ -1,7 +1,14 @@
 package project Mountain;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.Stack;
 
 /**
@@ -16,19 +23,39 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
 
    /**
     * Node class representing elements of the binary search tree.
+    * Visible to subclasses so that specialized trees can walk the node structure directly.
     */
-    private class Node {
+    protected class Node {
         E data;
         Node left;
         Node right;
 
         int height;
 
+        /**
+         * Structural hash of the subtree rooted at this node, mixing the data with the hashes of both children
+         */
+        long hash;
+
         Node(E data) {
             this.data = data;
             left = null;
             right = null;
             height = 0;
+            hash = subtreeHash(this);
+        }
+    }
+
+   /**
+    * A node waiting to be written by {@link #writeTreeFormat(Writer, int, long)}, together with its depth level.
+    */
+    private class Frame {
+        Node node;
+        int level;
+
+        Frame(Node node, int level) {
+            this.node = node;
+            this.level = level;
         }
     }
 
@@ -411,12 +438,67 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
         
         // Cast the object to the same type of BST
         BST<E> other = (BST<E>) o;
+
+        // Trees of different sizes or with different structural hashes cannot be equal
+        if (size != other.size || (root != null && root.hash != other.root.hash)) {
+            return false;
+        }
         
         // Use a recursive method to compare the trees starting from the root nodes
         return equalsRecursive(root, other.root);
     }
 
 
+   /**
+    * Returns a hash code for this tree, derived from its elements and its shape. Equal trees have equal hash codes.
+    * The hash of every subtree is kept up to date by {@code add} and {@code remove}, so this takes constant time.
+    * Elements must not be modified in a way that changes their hash code while they are in the tree.
+    *
+    * @return the hash code of this tree
+    */
+    @Override
+    public int hashCode() {
+        return root == null ? 0 : (int) (root.hash ^ (root.hash >>> 32));
+    }
+
+
+   /**
+    * Returns the elements that differ between this tree and another one: elements present in only one of the trees,
+    * and elements whose content changed. Subtrees with the same structural hash in both trees are skipped without
+    * collecting their elements. When the hashes are built from the elements' 32-bit hash codes, which can collide,
+    * such subtrees are first compared for equality; when {@link #trustsHashes()} is true they are skipped on their
+    * hash alone, so that a small change costs time in proportion to its size rather than to the size of the trees.
+    *
+    * @param other the tree to compare with
+    * @return the differing elements, those of this tree first, each group in no particular order
+    * @throws NullPointerException if the other tree is null
+    */
+    public List<E> diff(BST<E> other) throws NullPointerException {
+        if (other == null) {
+            throw new NullPointerException("The tree to compare with cannot be null.");
+        }
+        List<E> onlyHere = new ArrayList<>();
+        List<E> onlyThere = new ArrayList<>();
+        diffRecursive(root, other.root, onlyHere, onlyThere);
+
+        // Elements collected on both sides sit in changed subtrees but are themselves unchanged
+        Set<E> here = new HashSet<>(onlyHere);
+        Set<E> there = new HashSet<>(onlyThere);
+        List<E> result = new ArrayList<>();
+        for (E e : onlyHere) {
+            if (!there.contains(e)) {
+                result.add(e);
+            }
+        }
+        for (E e : onlyThere) {
+            if (!here.contains(e)) {
+                result.add(e);
+            }
+        }
+        return result;
+    }
+
+
    /**
     * Retrieves the element at the specified position in this tree based on inorder traversal. This method 
     * throws an {@code IndexOutOfBoundsException} if the index is out of range (index < 0 || index >= size).
@@ -461,6 +543,15 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
         return root == null ? 0 : root.height;
     }
 
+    /**
+     * Returns the root node of this tree, or null if the tree is empty.
+     * Intended for subclasses that need to traverse the node structure directly.
+     * @return the root node of this tree
+     */
+    protected Node root() {
+        return root;
+    }
+
     /**
      * Returns true if this set contains no elements.
      * @return true if this set contains no elements
@@ -507,24 +598,13 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
      * @return a string representation of this collection
      */
     public String toString() {
-        // Create an iterator to traverse through the elements of the data structure
-        Iterator<E> iterator = iterator();
-        // Start the string representation with an opening bracket
-        String result = "[";
-        // Loop through all elements in the data structure using the iterator
-        while (iterator.hasNext()){
-            // Append each element to the result string, followed by a comma
-            result += String.valueOf(iterator.next()) + ",";
-        }
-        // Check if the data structure is not empty to avoid removing a comma from an empty string
-        if (!isEmpty()){
-            // Remove the last comma to correct the string format before closing bracket
-            result = result.substring(0, result.length() - 1);
-        }
-        // Append a closing bracket to complete the string representation
-        result += "]";
-        // Return the final string representation of the data structure
-        return result;
+        StringWriter result = new StringWriter();
+        try {
+            writeTo(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("A StringWriter cannot fail.", e);
+        }
+        return result.toString();
     }
 
 
@@ -535,43 +615,118 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
      * @return a string representation of this collection
      */
     public String toStringTreeFormat() {
-        StringBuilder result = new StringBuilder();
-        toStringTreeFormatRecursive(root, result, 0);
+        StringWriter result = new StringWriter();
+        try {
+            writeTreeFormat(result);
+        } catch (IOException e) {
+            throw new IllegalStateException("A StringWriter cannot fail.", e);
+        }
         return result.toString();
     }
 
 
    /**
-    * Helper method to create a string representation of the binary search tree in a tree format.
-    * This method appends each node's data to the StringBuilder along with indentations based on the node's level in the tree.
+    * Writes the same text as {@link #toString()} to a writer, one element at a time, without building it in memory.
     *
-    * @param node the current node being processed
-    * @param builder the StringBuilder to which the tree format is being built
-    * @param level the depth level of the current node, used for indentation
+    * @param out the writer to write to, which is not flushed or closed
+    * @throws IOException if the writer fails
     */
-    private void toStringTreeFormatRecursive(Node node, StringBuilder builder, int level) {
-        // Base case: if the current node is null, just return
-        if (node == null) {
+    public void writeTo(Writer out) throws IOException {
+        // Start the representation with an opening bracket
+        out.write('[');
+        boolean first = true;
+        // Write each element in inorder, separated by commas
+        for (E element : this) {
+            if (!first) {
+                out.write(',');
+            }
+            out.write(String.valueOf(element));
+            first = false;
+        }
+        // Close the representation with a closing bracket
+        out.write(']');
+    }
+
+
+   /**
+    * Writes the same text as {@link #toStringTreeFormat()} to a writer, without building it in memory.
+    *
+    * @param out the writer to write to, which is not flushed or closed
+    * @throws IOException if the writer fails
+    */
+    public void writeTreeFormat(Writer out) throws IOException {
+        writeTreeFormat(out, Integer.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+
+   /**
+    * Writes the tree format of {@link #toStringTreeFormat()} to a writer, stopping at the given depth and number of nodes.
+    * The nodes are walked with an explicit stack, so degenerate trees of any height can be written without recursion.
+    * Where children are left out because of the depth limit, or the remaining nodes because of the node limit,
+    * a line "|--..." is written in their place.
+    *
+    * @param out the writer to write to, which is not flushed or closed
+    * @param maxDepth the number of levels to write, counting the root as the first level
+    * @param maxNodes the number of nodes to write
+    * @throws IOException if the writer fails
+    * @throws IllegalArgumentException if a limit is not positive
+    */
+    public void writeTreeFormat(Writer out, int maxDepth, long maxNodes) throws IOException, IllegalArgumentException {
+        if (maxDepth < 1 || maxNodes < 1) {
+            throw new IllegalArgumentException("The depth and node limits must be positive.");
+        }
+        if (root == null) {
             return;
         }
-        // Append spaces for each level to indent the node's value, creating a visual tree structure
-        for (int i = 0; i < level; i++) {
-            builder.append("   "); // Append 3 spaces for each level of depth
+        Stack<Frame> stack = new Stack<>();
+        stack.push(new Frame(root, 0));
+        long written = 0;
+        while (!stack.isEmpty()) {
+            Frame frame = stack.pop();
+            // Stop once the node limit is reached, marking where the remaining nodes would go
+            if (written == maxNodes) {
+                writeLine(out, frame.level, "...");
+                return;
+            }
+            Node node = frame.node;
+            // Write the node's data prefixed with |-- and indented by its level
+            writeLine(out, frame.level, String.valueOf(node.data));
+            written++;
+
+            if (node.left == null && node.right == null) {
+                // If node is a leaf, write a placeholder for visual completeness
+                writeLine(out, frame.level + 1, "null");
+            } else if (frame.level + 1 == maxDepth) {
+                // The children are below the depth limit
+                writeLine(out, frame.level + 1, "...");
+            } else {
+                // Push the right child first so that the left subtree is written first
+                if (node.right != null) {
+                    stack.push(new Frame(node.right, frame.level + 1));
+                }
+                if (node.left != null) {
+                    stack.push(new Frame(node.left, frame.level + 1));
+                }
+            }
         }
-        // Append the node's data prefixed with |-- to signify branch and start a new line
-        builder.append("|--").append(node.data).append("\n");
+    }
 
-        // Recursively call the function for both left and right children if they exist
-        if (node.left != null || node.right != null) {
-            toStringTreeFormatRecursive(node.left, builder, level + 1); // Process left subtree
-            toStringTreeFormatRecursive(node.right, builder, level + 1); // Process right subtree
-        } else {
-            // If node is a leaf, append placeholder for visual completeness
-            for (int i = 0; i < level + 1; i++) {
-                builder.append("   "); // Append spaces for indentation
-            }
-            builder.append("|--null\n"); // Indicate that there are no children in this part of the tree
+
+   /**
+    * Writes one line of the tree format: three spaces per level of depth, then |-- and the text.
+    *
+    * @param out the writer to write to
+    * @param level the depth level of the line
+    * @param text the text of the line
+    * @throws IOException if the writer fails
+    */
+    private static void writeLine(Writer out, int level, String text) throws IOException {
+        for (int i = 0; i < level; i++) {
+            out.write("   ");
         }
+        out.write("|--");
+        out.write(text);
+        out.write('\n');
     }
 
 
@@ -586,7 +741,8 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
     */
     private boolean insertRecursive(Node node, E e) {
     // Base case: Check if the current node's data is greater or smaller than the element to be inserted
-    if (e.compareTo(node.data) < 0) {
+    int cmp = e.compareTo(node.data); // Compare once and reuse the result for both checks
+    if (cmp < 0) {
         // If the element is smaller, explore the left subtree
         if (node.left == null) {
             // If left child doesn't exist, create new node here
@@ -594,6 +750,7 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
             node.left.height = 1; // Initialize the height of the new node
             // Update the height of the current node considering the new subtree height
             node.height = Math.max(node.left == null ? 0 : node.left.height, node.right == null ? 0 : node.right.height) + 1;
+            node.hash = subtreeHash(node);
             size++; // Increment size of the tree
             return true; // Insertion was successful
         } else {
@@ -602,10 +759,11 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
             if (inserted) {
                 // Update the height of the current node if insertion in left subtree was successful
                 node.height = Math.max(node.left == null ? 0 : node.left.height, node.right == null ? 0 : node.right.height) + 1;
+                node.hash = subtreeHash(node);
             }
             return inserted;
         }
-    } else if (e.compareTo(node.data) > 0) {
+    } else if (cmp > 0) {
         // If the element is larger, explore the right subtree
         if (node.right == null) {
             // If right child doesn't exist, create new node here
@@ -613,6 +771,7 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
             node.right.height = 1; // Initialize the height of the new node
             // Update the height of the current node considering the new subtree height
             node.height = Math.max(node.left == null ? 0 : node.left.height, node.right == null ? 0 : node.right.height) + 1;
+            node.hash = subtreeHash(node);
             size++; // Increment size of the tree
             return true; // Insertion was successful
         } else {
@@ -621,6 +780,7 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
             if(inserted){
                 // Update the height of the current node if insertion in right subtree was successful
                 node.height = Math.max(node.left == null ? 0 : node.left.height, node.right == null ? 0 : node.right.height) + 1;
+                node.hash = subtreeHash(node);
             }
             return inserted;
         }
@@ -647,11 +807,12 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
         }
         
         // If the element to be removed is less than the current node's data, go left
-        if (e.compareTo(node.data) < 0) {
+        int cmp = e.compareTo(node.data);
+        if (cmp < 0) {
             node.left = removeRecursive(node.left, e);
         } 
         // If the element to be removed is greater than the current node's data, go right
-        else if (e.compareTo(node.data) > 0) {
+        else if (cmp > 0) {
             node.right = removeRecursive(node.right, e);
         } 
         // If the current node is the node to be removed
@@ -677,6 +838,7 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
         
         // Update the height of the current node after removal
         node.height = Math.max(node.left == null ? 0 : node.left.height, node.right == null ? 0 : node.right.height) + 1;
+        node.hash = subtreeHash(node);
         // Return the updated node
         return node;
     }
@@ -713,11 +875,12 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
     }
 
     // If the element is less than the current node's data, search in the left subtree
-    if (e.compareTo(node.data) < 0) {
+    int cmp = e.compareTo(node.data);
+    if (cmp < 0) {
         return containsRecursive(node.left, e); 
     } 
     // If the element is greater than the current node's data, search in the right subtree
-    else if (e.compareTo(node.data) > 0) {
+    else if (cmp > 0) {
         return containsRecursive(node.right, e); 
     } 
     // If the element matches the current node's data, the element is found
@@ -727,6 +890,111 @@ public class  BST<E extends Comparable<E>> implements Iterable<E>{
 }
 
 
+   /**
+    * Recursively collects the elements of the parts of two trees that differ.
+    *
+    * @param node1 the root of the subtree in the first tree
+    * @param node2 the root of the subtree in the second tree
+    * @param onlyFirst the list receiving elements of the first tree in differing subtrees
+    * @param onlySecond the list receiving elements of the second tree in differing subtrees
+    */
+    private void diffRecursive(Node node1, Node node2, List<E> onlyFirst, List<E> onlySecond) {
+        // Identical subtrees have the same hash; unless the hash is trusted, confirm they are equal,
+        // since different elements can share a hash code
+        if (node1 != null && node2 != null && node1.hash == node2.hash
+                && (trustsHashes() || equalsRecursive(node1, node2))) {
+            return;
+        }
+        if (node1 == null || node2 == null) {
+            collect(node1, onlyFirst);
+            collect(node2, onlySecond);
+            return;
+        }
+        onlyFirst.add(node1.data);
+        onlySecond.add(node2.data);
+        diffRecursive(node1.left, node2.left, onlyFirst, onlySecond);
+        diffRecursive(node1.right, node2.right, onlyFirst, onlySecond);
+    }
+
+
+   /**
+    * Adds every element of a subtree to a list.
+    *
+    * @param node the root of the subtree, or null for an empty subtree
+    * @param elements the list receiving the elements
+    */
+    private void collect(Node node, List<E> elements) {
+        Stack<Node> stack = new Stack<>();
+        if (node != null) {
+            stack.push(node);
+        }
+        while (!stack.isEmpty()) {
+            Node current = stack.pop();
+            elements.add(current.data);
+            if (current.left != null) {
+                stack.push(current.left);
+            }
+            if (current.right != null) {
+                stack.push(current.right);
+            }
+        }
+    }
+
+
+   /**
+    * Computes the structural hash of a node from its data and the hashes of its children.
+    * The values are combined with a 64-bit mixing function, so that trees holding the same elements in different
+    * shapes, or swapped subtrees, are very unlikely to share a hash.
+    *
+    * @param node the node whose hash is computed
+    * @return the hash of the subtree rooted at the node
+    */
+    private long subtreeHash(Node node) {
+        long hash = mix(elementHash(node.data));
+        hash = mix(hash + 0x9e3779b97f4a7c15L * (node.left == null ? 1 : node.left.hash));
+        hash = mix(hash ^ (node.right == null ? 2 : node.right.hash));
+        return hash;
+    }
+
+
+   /**
+    * Returns the hash of an element that the structural hashes are built from. By default this is the element's
+    * 32-bit hash code, whose collisions are easy to come by, so {@link #diff(BST)} confirms matching subtrees
+    * element by element. A tree whose elements carry a 64-bit hash of their whole content can return it here
+    * and override {@link #trustsHashes()}.
+    *
+    * @param element the element to hash, never null
+    * @return the hash of the element, equal for equal elements
+    */
+    protected long elementHash(E element) {
+        return element.hashCode();
+    }
+
+
+   /**
+    * Returns true if subtrees with the same structural hash can be taken to be equal without comparing them,
+    * which is only safe when {@link #elementHash(Comparable)} covers the whole content of an element in 64 bits.
+    *
+    * @return false, unless a subclass provides such an element hash
+    */
+    protected boolean trustsHashes() {
+        return false;
+    }
+
+
+   /**
+    * Scrambles the bits of a value, so that nearby inputs give unrelated outputs (the finalizer of SplitMix64).
+    *
+    * @param value the value to scramble
+    * @return the scrambled value
+    */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+
    /**
     * Recursively checks if two binary search trees are equal.
     *
@@ -1,8 +1,19 @@
 package project Mountain;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Stack;
 
 /**
  * This class represents a binary search tree specialized for storing RestStop objects and performing search operations.
@@ -12,6 +23,259 @@ import java.util.List;
  * @param <RestStop> The type of elements stored in the binary search tree.
  */
 public class BSTMountain extends BST<RestStop>{
+
+    /**
+     * Number of rest stops visited between two checks of the deadline
+     */
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    /**
+     * A rest stop still to be arrived at during a walk down the mountain, together with its depth and the walker's
+     * state at its parent.
+     */
+    private class Arrival<S> {
+        Node node;
+        S state;
+        int depth;
+
+        Arrival(Node node, S state, int depth) {
+            this.node = node;
+            this.state = state;
+            this.depth = depth;
+        }
+    }
+
+    /**
+     * What a walk down the mountain carries and does along the way; see {@link #walk(Object, Walker)}.
+     *
+     * @param <S> the state carried down each path, such as the hiker's inventory
+     */
+    private abstract static class Walker<S> {
+
+        /**
+         * Returns the state after arriving at a rest stop. Called when the rest stop is taken off the stack,
+         * so the rest stops of the current path above it are path[0..depth-1], and every path to its left has
+         * already been walked.
+         *
+         * @param state the state at the previous rest stop, or the starting state at the summit
+         * @param stop the rest stop arrived at
+         * @param depth the depth of the rest stop, starting at 0 for the summit
+         * @return the new state, or null if the path cannot go on to this rest stop
+         */
+        abstract S arrive(S state, RestStop stop, int depth);
+
+        /**
+         * Called when a rest stop is reached, before its children. The current path is path[0..depth].
+         *
+         * @param path the rest stops of the current path, by depth
+         * @param depth the depth of the rest stop, starting at 0 for the summit
+         * @param children the number of children on a full-height path, 0 for a leaf
+         * @return false to stop the walk
+         */
+        boolean visit(RestStop[] path, int depth, int children) {
+            return true;
+        }
+
+        /**
+         * Called when a leaf is reached, which completes a feasible path path[0..depth].
+         *
+         * @param path the rest stops of the path, by depth
+         * @param depth the depth of the leaf
+         * @param state the state on arrival at the leaf
+         */
+        abstract void leaf(RestStop[] path, int depth, S state);
+
+        /**
+         * Called when a child of the rest stop at the given depth cannot be reached.
+         *
+         * @param depth the depth of the rest stop whose child is cut off
+         */
+        void blocked(int depth) {
+        }
+    }
+
+    /**
+     * A walker carrying the hiker's inventory, which arrives at rest stops following {@link Inventory#arrive}.
+     */
+    private abstract static class InventoryWalker extends Walker<Inventory> {
+        @Override
+        Inventory arrive(Inventory inventory, RestStop stop, int depth) {
+            return inventory.arrive(stop, depth == 0);
+        }
+    }
+
+    /**
+     * The inventories of a batch of hikers at every depth of the current path, stored as primitive arrays,
+     * together with a bitmask of the hikers still alive at each depth.
+     */
+    private static class BatchState {
+        int[][][] counts;
+        long[][] alive;
+        int[] broke;
+
+        BatchState(int levels, int hikers) {
+            counts = new int[levels][SupplyRules.DEFAULT.slots()][hikers];
+            alive = new long[levels][(hikers + 63) >>> 6];
+            broke = new int[hikers];
+        }
+    }
+
+    /**
+     * A feasible path kept in a ranked result, with the order in which it was found to break ties.
+     */
+    private static class RankedPath {
+        double score;
+        long order;
+        List<RestStop> path;
+
+        RankedPath(double score, long order, List<RestStop> path) {
+            this.score = score;
+            this.order = order;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Optional index from label to rest stop, kept consistent with the tree; null if the mountain is not indexed
+     */
+    private Map<String, RestStop> labelIndex;
+
+
+    /**
+     * Constructs a new, empty mountain without a label index.
+     */
+    public BSTMountain() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new, empty mountain, optionally keeping an index from label to rest stop.
+     * With the index, looking up or checking for a rest stop by label takes constant time instead of
+     * comparing labels all the way down the tree, at the cost of one map entry per rest stop.
+     * @param indexLabels true to keep a label index
+     */
+    public BSTMountain(boolean indexLabels) {
+        super();
+        labelIndex = indexLabels ? new HashMap<>() : null;
+    }
+
+
+    /**
+     * Adds the specified rest stop to this mountain if no rest stop with the same label is already present.
+     * @param e rest stop to be added
+     * @return true if this mountain did not already contain the rest stop
+     * @throws NullPointerException if the specified rest stop is null
+     */
+    @Override
+    public boolean add(RestStop e) throws NullPointerException {
+        boolean added = super.add(e);
+        if (added && labelIndex != null) {
+            labelIndex.put(e.getLabel(), e);
+        }
+        return added;
+    }
+
+    /**
+     * Removes the rest stop with the label of the specified rest stop from this mountain, if it is present.
+     * @param o rest stop to be removed from this mountain, if present
+     * @return true if this mountain contained the rest stop
+     * @throws NullPointerException if the specified rest stop is null
+     * @throws ClassCastException if the specified object is not a rest stop
+     */
+    @Override
+    public boolean remove(Object o) throws NullPointerException, ClassCastException {
+        boolean removed = super.remove(o);
+        if (removed && labelIndex != null) {
+            labelIndex.remove(((RestStop) o).getLabel());
+        }
+        return removed;
+    }
+
+    /**
+     * Removes all of the rest stops from this mountain.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        if (labelIndex != null) {
+            labelIndex.clear();
+        }
+    }
+
+    /**
+     * Returns true if this mountain contains a rest stop with the label of the specified rest stop.
+     * Uses the label index when there is one.
+     * @param o rest stop to be checked for containment in this mountain
+     * @return true if this mountain contains the rest stop
+     * @throws NullPointerException if the specified rest stop is null
+     * @throws ClassCastException if the specified object is not a rest stop
+     */
+    @Override
+    public boolean contains(Object o) throws NullPointerException, ClassCastException {
+        if (labelIndex == null || o == null || isEmpty()) {
+            return super.contains(o);
+        }
+        if (o.getClass() != RestStop.class) {
+            throw new ClassCastException("The object type does not match the elements in the BST.");
+        }
+        return labelIndex.containsKey(((RestStop) o).getLabel());
+    }
+
+    /**
+     * Builds the structural hashes from the cached 64-bit content hash of each rest stop, rather than from
+     * its 32-bit hash code.
+     * @param element the rest stop to hash
+     * @return the content hash of the rest stop
+     */
+    @Override
+    protected long elementHash(RestStop element) {
+        return element.getContentHash();
+    }
+
+    /**
+     * Returns true, since the content hash of a rest stop covers its whole label and supplies.
+     * @return true
+     */
+    @Override
+    protected boolean trustsHashes() {
+        return true;
+    }
+
+    /**
+     * Returns true if this mountain contains a rest stop with the given label.
+     * @param label the label to look for
+     * @return true if a rest stop with the label is present
+     * @throws NullPointerException if the label is null
+     */
+    public boolean containsLabel(String label) throws NullPointerException {
+        return get(label) != null;
+    }
+
+    /**
+     * Returns the rest stop with the given label. Takes constant time when the mountain keeps a label index,
+     * and searches the tree otherwise.
+     * @param label the label to look for
+     * @return the rest stop with the label, or null if there is none
+     * @throws NullPointerException if the label is null
+     */
+    public RestStop get(String label) throws NullPointerException {
+        if (label == null) {
+            throw new NullPointerException("The label cannot be null.");
+        }
+        if (labelIndex != null) {
+            return labelIndex.get(label);
+        }
+        Node node = root();
+        while (node != null) {
+            int cmp = label.compareTo(node.data.getLabel());
+            if (cmp == 0) {
+                return node.data;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return null;
+    }
+
     /**
      * Perform a depth-first search (DFS) traversal on the binary search tree to generate all possible paths.
      * 
@@ -79,4 +343,564 @@ public class BSTMountain extends BST<RestStop>{
         }
         return result;  // Return the result
     }
+
+    /**
+     * Returns the child on one side of a rest stop if it lies on a full-height path, that is if its subtree
+     * reaches the base of the mountain.
+     *
+     * @param node the rest stop
+     * @param side 0 for the left child, 1 for the right child
+     * @return the child, or null if there is none or it does not lie on a full-height path
+     */
+    private Node child(Node node, int side) {
+        Node child = side == 0 ? node.left : node.right;
+        return child != null && child.height == node.height - 1 ? child : null;
+    }
+
+    /**
+     * Walks every full-height path down the mountain, depth first from left to right, with an explicit stack.
+     * The walker's state is carried down each path and a subtree is skipped as soon as the state cannot arrive
+     * at its top, so only the current path and the pending siblings are held at any time.
+     *
+     * @param start the state before arriving at the summit
+     * @param walker the state transition and callbacks of the walk
+     * @return true if the whole mountain was walked, false if the walker stopped it
+     */
+    private <S> boolean walk(S start, Walker<S> walker) {
+        Node root = root();
+        if (root == null) {
+            return true;
+        }
+
+        RestStop[] path = new RestStop[root.height];
+        Stack<Arrival<S>> stack = new Stack<>();
+        stack.push(new Arrival<>(root, start, 0));
+        while (!stack.isEmpty()) {
+            Arrival<S> arrival = stack.pop();
+            Node node = arrival.node;
+            int depth = arrival.depth;
+            S state = walker.arrive(arrival.state, node.data, depth);
+            if (state == null) {
+                if (depth > 0) {
+                    walker.blocked(depth - 1);
+                }
+                continue;
+            }
+            int children = (child(node, 0) == null ? 0 : 1) + (child(node, 1) == null ? 0 : 1);
+            path[depth] = node.data;
+            if (!walker.visit(path, depth, children)) {
+                return false;
+            }
+            if (children == 0) {
+                walker.leaf(path, depth, state);
+                continue;
+            }
+            // Push the right child first so that leaves are reached from left to right
+            for (int side = 1; side >= 0; side--) {
+                Node child = child(node, side);
+                if (child != null) {
+                    stack.push(new Arrival<>(child, state, depth + 1));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the single best feasible path down the mountain under the given score, without keeping every path.
+     * Only paths reaching the full height of the mountain are considered, as in {@link MountainClimb}.
+     * The hiker reaches each rest stop with a single inventory, so one walk down the mountain scores every
+     * feasible path as its leaf is reached, from the score accumulated along the way, and keeps the best one.
+     * Ties go to the leftmost path.
+     *
+     * @param score the scoring function to maximize
+     * @return the best feasible path from the summit to the base, or an empty list if no path is feasible
+     * @throws NullPointerException if the score is null
+     */
+    public List<RestStop> bestPath(PathScore score) throws NullPointerException {
+        if (score == null) {
+            throw new NullPointerException("The score cannot be null.");
+        }
+        // The score of the stops of the current path below the summit, by depth, and the best path so far
+        double[] scores = new double[height()];
+        double[] best = {Double.NEGATIVE_INFINITY};
+        List<RestStop> path = new ArrayList<>();
+        walk(Inventory.EMPTY, new InventoryWalker() {
+            @Override
+            boolean visit(RestStop[] path, int depth, int children) {
+                scores[depth] = depth == 0 ? 0 : scores[depth - 1] + score.stop(path[depth]);
+                return true;
+            }
+
+            @Override
+            void leaf(RestStop[] stops, int depth, Inventory inventory) {
+                double value = scores[depth] + score.finish(inventory);
+                if (value > best[0]) {
+                    best[0] = value;
+                    path.clear();
+                    path.addAll(Arrays.asList(stops).subList(0, depth + 1));
+                }
+            }
+        });
+        return path;
+    }
+
+    /**
+     * Counts the feasible paths down the mountain without building any of them.
+     * Only paths reaching the full height of the mountain are counted, as in {@link MountainClimb}.
+     *
+     * @return the number of feasible paths from the summit to the base
+     */
+    public long countFeasiblePaths() {
+        return countFeasible(null);
+    }
+
+    /**
+     * Counts the feasible paths down the mountain, split by the rest stop at the base where each path ends.
+     * Leaves without a feasible path are not included.
+     *
+     * @return the number of feasible paths ending at each leaf, ordered from left to right
+     */
+    public Map<RestStop, Long> countFeasiblePathsByLeaf() {
+        Map<RestStop, Long> byLeaf = new LinkedHashMap<>();
+        countFeasible(byLeaf);
+        return byLeaf;
+    }
+
+    /**
+     * Walks the mountain carrying only the hiker's inventory, so no path is ever materialized.
+     * Because the mountain is a tree, every leaf is reached by exactly one path and a long count cannot overflow.
+     *
+     * @param byLeaf the map receiving the count for each leaf, or null if only the total is needed
+     * @return the number of feasible paths from the summit to the base
+     */
+    private long countFeasible(Map<RestStop, Long> byLeaf) {
+        long[] count = new long[1];
+        walk(Inventory.EMPTY, new InventoryWalker() {
+            @Override
+            void leaf(RestStop[] path, int depth, Inventory inventory) {
+                // Reaching a leaf on a full-height path completes one feasible path
+                count[0]++;
+                if (byLeaf != null) {
+                    byLeaf.merge(path[depth], 1L, Long::sum);
+                }
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * Finds the k best feasible paths down the mountain under the given score, best first.
+     * Paths with equal scores are ranked from left to right. Only the current path and the k best paths
+     * found so far are kept, and subtrees that cannot beat the k-th best path are skipped.
+     * A subtree is bounded by the levels below it: a path through it passes one rest stop at each deeper level,
+     * so it can gain at most the best stop score and the largest pickup of each supply found at each level.
+     *
+     * @param k the number of paths to return
+     * @param score the scoring function to maximize
+     * @return at most k feasible paths from the summit to the base, ordered from best to worst
+     * @throws IllegalArgumentException if k is not positive
+     * @throws NullPointerException if the score is null
+     */
+    public List<List<RestStop>> topPaths(int k, PathScore score) throws IllegalArgumentException, NullPointerException {
+        if (k < 1) {
+            throw new IllegalArgumentException("The number of paths must be positive: " + k);
+        }
+        if (score == null) {
+            throw new NullPointerException("The score cannot be null.");
+        }
+        // Keep the worst of the k best paths at the head of the heap so that it can be evicted
+        PriorityQueue<RankedPath> heap = new PriorityQueue<>(k + 1, (a, b) -> a.score != b.score
+                ? Double.compare(a.score, b.score) : Long.compare(b.order, a.order));
+
+        int levels = height();
+        double[] stopsBelow = new double[levels];
+        Inventory[] gainBelow = new Inventory[levels];
+        boundLevels(score, stopsBelow, gainBelow);
+
+        // The sum of stop scores along the current path, by depth, and the number of feasible paths found
+        double[] values = new double[levels];
+        long[] found = new long[1];
+        walk(Inventory.EMPTY, new InventoryWalker() {
+            @Override
+            Inventory arrive(Inventory inventory, RestStop stop, int depth) {
+                Inventory next = super.arrive(inventory, stop, depth);
+                if (next == null) {
+                    return null;
+                }
+                values[depth] = (depth == 0 ? 0 : values[depth - 1]) + score.stop(stop);
+                // Skip this subtree if even its best possible path cannot beat the k-th best path found so far
+                if (heap.size() == k && values[depth] + stopsBelow[depth]
+                        + score.finishBound(next, gainBelow[depth]) <= heap.peek().score) {
+                    return null;
+                }
+                return next;
+            }
+
+            @Override
+            void leaf(RestStop[] path, int depth, Inventory inventory) {
+                RankedPath ranked = new RankedPath(values[depth] + score.finish(inventory), found[0]++, null);
+                if (heap.size() < k || ranked.score > heap.peek().score) {
+                    ranked.path = new ArrayList<>(Arrays.asList(path).subList(0, depth + 1));
+                    heap.add(ranked);
+                    if (heap.size() > k) {
+                        heap.poll();
+                    }
+                }
+            }
+        });
+
+        List<List<RestStop>> result = new ArrayList<>();
+        while (!heap.isEmpty()) {
+            result.add(heap.poll().path);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * Computes, for each depth, the most a path can still gain below a rest stop at that depth: the sum over the
+     * deeper levels of the best stop score, and of the most of each supply picked up, at any rest stop of the level
+     * on a full-height path.
+     *
+     * @param score the scoring function being maximized
+     * @param stopsBelow receives the bound on the stop scores below each depth
+     * @param gainBelow receives the bound on the supplies picked up below each depth
+     */
+    private void boundLevels(PathScore score, double[] stopsBelow, Inventory[] gainBelow) {
+        int levels = stopsBelow.length;
+        double[] best = new double[levels];
+        Inventory[] most = new Inventory[levels];
+        Arrays.fill(best, Double.NEGATIVE_INFINITY);
+        Arrays.fill(most, Inventory.EMPTY);
+        // Every rest stop on a full-height path can be arrived at as far as the bound is concerned
+        walk(Boolean.TRUE, new Walker<Boolean>() {
+            @Override
+            Boolean arrive(Boolean state, RestStop stop, int depth) {
+                best[depth] = Math.max(best[depth], score.stop(stop));
+                most[depth] = most[depth].max(Inventory.EMPTY.plus(stop));
+                return state;
+            }
+
+            @Override
+            void leaf(RestStop[] path, int depth, Boolean state) {
+            }
+        });
+        for (int depth = levels - 1; depth >= 0; depth--) {
+            stopsBelow[depth] = depth == levels - 1 ? 0 : stopsBelow[depth + 1] + best[depth + 1];
+            gainBelow[depth] = depth == levels - 1 ? Inventory.EMPTY : gainBelow[depth + 1].plus(most[depth + 1]);
+        }
+    }
+
+    /**
+     * Finds the leaves that hikers starting with any of the given inventories can reach on a full-height path.
+     * At every rest stop only the Pareto frontier of inventories is kept: a hiker whose inventory is dominated by
+     * another hiker's can never do better, so that state is dropped instead of being explored again.
+     *
+     * @param starts the inventories the hikers start with, before arriving at the summit
+     * @return for each reachable leaf, ordered from left to right, the non-dominated inventories hikers finish with
+     * @throws NullPointerException if the collection of starting inventories is null
+     */
+    public Map<RestStop, List<Inventory>> feasibleLeaves(Collection<Inventory> starts) throws NullPointerException {
+        if (starts == null) {
+            throw new NullPointerException("The starting inventories cannot be null.");
+        }
+        Map<RestStop, List<Inventory>> leaves = new LinkedHashMap<>();
+        walk(new ArrayList<>(starts), new Walker<List<Inventory>>() {
+            @Override
+            List<Inventory> arrive(List<Inventory> frontier, RestStop stop, int depth) {
+                List<Inventory> next = new ArrayList<>();
+                for (Inventory inventory : frontier) {
+                    addNonDominated(next, inventory.arrive(stop, depth == 0));
+                }
+                return next.isEmpty() ? null : next;
+            }
+
+            @Override
+            void leaf(RestStop[] path, int depth, List<Inventory> frontier) {
+                leaves.put(path[depth], frontier);
+            }
+        });
+        return leaves;
+    }
+
+    /**
+     * Adds an inventory to a Pareto frontier unless it is dominated, removing any inventories it dominates.
+     *
+     * @param frontier the non-dominated inventories collected so far
+     * @param candidate the inventory to add, or null if the hiker could not get this far
+     */
+    private void addNonDominated(List<Inventory> frontier, Inventory candidate) {
+        if (candidate == null) {
+            return;
+        }
+        for (Inventory inventory : frontier) {
+            if (inventory.dominates(candidate)) {
+                return;
+            }
+        }
+        frontier.removeIf(candidate::dominates);
+        frontier.add(candidate);
+    }
+
+    /**
+     * Simulates a whole batch of hikers in a single walk down the mountain.
+     * All hikers are updated in lockstep at each rest stop using plain loops over primitive arrays,
+     * and subtrees where no hiker is still alive are skipped.
+     *
+     * @param batch the hikers and their starting inventories
+     * @return for each leaf on a full-height path, ordered from left to right, the positions in the batch of
+     *         the hikers who reach it; leaves no hiker reaches are not included
+     * @throws NullPointerException if the batch is null
+     */
+    public Map<RestStop, BitSet> simulate(HikerBatch batch) throws NullPointerException {
+        if (batch == null) {
+            throw new NullPointerException("The batch of hikers cannot be null.");
+        }
+        Map<RestStop, BitSet> leaves = new LinkedHashMap<>();
+        Node root = root();
+        int hikers = batch.size();
+        if (root == null || hikers == 0) {
+            return leaves;
+        }
+
+        BatchState state = new BatchState(root.height, hikers);
+        batch.copyTo(state.counts[0]);
+        // Every hiker starts alive
+        long[] alive = state.alive[0];
+        for (int w = 0; w < alive.length; w++) {
+            alive[w] = -1L;
+        }
+        if ((hikers & 63) != 0) {
+            alive[alive.length - 1] = (1L << (hikers & 63)) - 1;
+        }
+
+        if (advanceBatch(root.data, true, state, 0, hikers)) {
+            simulateRecursive(root, 0, state, hikers, leaves);
+        }
+        return leaves;
+    }
+
+    /**
+     * Moves the batch from the given node to each child on a full-height path, recording the hikers alive at leaves.
+     *
+     * @param node the rest stop the batch has arrived at
+     * @param depth the depth of the rest stop, starting at 0 for the summit
+     * @param state the inventories and alive masks of the batch at every depth
+     * @param hikers the number of hikers in the batch
+     * @param leaves the map receiving the hikers alive at each leaf
+     */
+    private void simulateRecursive(Node node, int depth, BatchState state, int hikers, Map<RestStop, BitSet> leaves) {
+        if (node.left == null && node.right == null) {
+            leaves.put(node.data, BitSet.valueOf(state.alive[depth]));
+            return;
+        }
+        for (int side = 0; side < 2; side++) {
+            Node child = side == 0 ? node.left : node.right;
+            if (child == null || child.height != node.height - 1) {
+                continue;
+            }
+            // Start the child's level from a copy of this level
+            for (int slot = 0; slot < state.counts[depth].length; slot++) {
+                System.arraycopy(state.counts[depth][slot], 0, state.counts[depth + 1][slot], 0, hikers);
+            }
+            System.arraycopy(state.alive[depth], 0, state.alive[depth + 1], 0, state.alive[depth].length);
+            if (advanceBatch(child.data, false, state, depth + 1, hikers)) {
+                simulateRecursive(child, depth + 1, state, hikers, leaves);
+            }
+        }
+    }
+
+    /**
+     * Applies a rest stop to every hiker of the batch at the given depth, following the same rules as
+     * {@link Inventory#arrive(RestStop, boolean)}. The loops are branch free: a hiker who runs out of a supply
+     * is only recorded in a deficit array and removed from the alive mask once the rest stop has been handled.
+     *
+     * @param stop the rest stop the batch arrives at
+     * @param first true if this is the first rest stop of the path, which does not cost food
+     * @param state the inventories and alive masks of the batch at every depth
+     * @param depth the depth whose inventories are updated in place
+     * @param hikers the number of hikers in the batch
+     * @return true if at least one hiker is still alive after the rest stop
+     */
+    private boolean advanceBatch(RestStop stop, boolean first, BatchState state, int depth, int hikers) {
+        SupplyRules rules = SupplyRules.DEFAULT;
+        int[][] counts = state.counts[depth];
+        int[] broke = state.broke;
+        for (int i = 0; i < hikers; i++) {
+            broke[i] = 0;
+        }
+
+        // Every step down the mountain costs one unit of the step cost
+        if (!first) {
+            consume(counts[rules.stepCost()], broke, hikers);
+        }
+        // Handle the obstacles and supplies at the rest stop in order
+        for (int code : stop.getCodes()) {
+            if (rules.isObstacle(code)) {
+                consume(counts[rules.consumes(code)], broke, hikers);
+            } else {
+                pickUp(counts[rules.gives(code)], hikers);
+            }
+        }
+
+        // Clear the alive bit of every hiker whose deficit went negative
+        long[] alive = state.alive[depth];
+        for (int i = 0; i < hikers; i++) {
+            alive[i >>> 6] &= ~((long) (broke[i] >>> 31) << i);
+        }
+        long any = 0;
+        for (int w = 0; w < alive.length; w++) {
+            any |= alive[w];
+        }
+        return any != 0;
+    }
+
+    /**
+     * Takes one unit of a supply from every hiker, recording in the deficit array the hikers who had none left.
+     *
+     * @param counts the number of the supply each hiker carries
+     * @param broke the deficit of each hiker, negative once the hiker ran out of something
+     * @param hikers the number of hikers in the batch
+     */
+    private static void consume(int[] counts, int[] broke, int hikers) {
+        for (int i = 0; i < hikers; i++) {
+            int left = counts[i] - 1;
+            counts[i] = left;
+            broke[i] |= left;
+        }
+    }
+
+    /**
+     * Gives one unit of a supply to every hiker.
+     *
+     * @param counts the number of the supply each hiker carries
+     * @param hikers the number of hikers in the batch
+     */
+    private static void pickUp(int[] counts, int hikers) {
+        for (int i = 0; i < hikers; i++) {
+            counts[i]++;
+        }
+    }
+
+    /**
+     * Finds the feasible paths down the mountain, stopping when the deadline expires or is cancelled.
+     * The deadline is checked every few rest stops, so the search stops shortly after it expires and returns
+     * the paths found so far together with statistics on how much of the mountain was explored.
+     * Only paths reaching the full height of the mountain are considered, as in {@link MountainClimb}.
+     *
+     * @param deadline the deadline of the search
+     * @return the feasible paths found, ordered from left to right, and the progress of the search
+     * @throws NullPointerException if the deadline is null
+     */
+    public SolveResult solve(Deadline deadline) throws NullPointerException {
+        if (deadline == null) {
+            throw new NullPointerException("The deadline cannot be null.");
+        }
+        ClimbEvents.Solve event = new ClimbEvents.Solve();
+        long allocated = event.isEnabled() ? ClimbEvents.allocatedBytes() : -1;
+        event.begin();
+        long start = System.nanoTime();
+        List<List<RestStop>> paths = new ArrayList<>();
+        long[] visited = new long[1];
+        double[] explored = new double[1];
+        // The share of the search space below each rest stop of the current path, split evenly between its children
+        double[] shares = new double[height() + 1];
+        shares[0] = 1.0;
+
+        boolean complete = walk(Inventory.EMPTY, new InventoryWalker() {
+            @Override
+            boolean visit(RestStop[] path, int depth, int children) {
+                if (visited[0] % DEADLINE_CHECK_INTERVAL == 0 && deadline.expired()) {
+                    return false;
+                }
+                visited[0]++;
+                if (children > 0) {
+                    shares[depth + 1] = shares[depth] / children;
+                }
+                return true;
+            }
+
+            @Override
+            void leaf(RestStop[] path, int depth, Inventory inventory) {
+                paths.add(new ArrayList<>(Arrays.asList(path).subList(0, depth + 1)));
+                explored[0] += shares[depth];
+            }
+
+            @Override
+            void blocked(int depth) {
+                // A child no hiker can reach counts as explored
+                explored[0] += shares[depth + 1];
+            }
+        });
+
+        ClimbEvents.commitSolve(event, "deadline", visited[0], paths.size(), ClimbEvents.allocatedSince(allocated));
+        return new SolveResult(paths, complete, visited[0], complete ? 1.0 : Math.min(explored[0], 1.0),
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Finds the feasible paths down the mountain in compact form, where each path is stored as the id of its leaf
+     * and each rest stop on a feasible path is stored once with the id of its parent.
+     * Only paths reaching the full height of the mountain are included, as in {@link MountainClimb}.
+     *
+     * @return the feasible paths from the summit to the base, ordered from left to right
+     */
+    public CompactPaths compactFeasiblePaths() {
+        CompactPaths paths = new CompactPaths();
+        // The ids of the rest stops on the current path, of which the first known[0] are already in the paths
+        int[] ids = new int[height()];
+        int[] known = new int[1];
+        walk(Inventory.EMPTY, new InventoryWalker() {
+            @Override
+            boolean visit(RestStop[] path, int depth, int children) {
+                known[0] = Math.min(known[0], depth);
+                return true;
+            }
+
+            @Override
+            void leaf(RestStop[] path, int depth, Inventory inventory) {
+                // Only rest stops on a feasible path get an id, the first time a path through them is found
+                for (int d = known[0]; d <= depth; d++) {
+                    ids[d] = paths.addNode(path[d].getLabel(), d == 0 ? -1 : ids[d - 1]);
+                }
+                known[0] = depth + 1;
+                paths.addPath(ids[depth]);
+            }
+        });
+        return paths;
+    }
+
+    /**
+     * Finds the feasible paths down the mountain and adds them to a sink one at a time, from left to right,
+     * so that only the current path and whatever the sink buffers are held in memory.
+     * Only paths reaching the full height of the mountain are included, as in {@link MountainClimb}.
+     *
+     * @param sink the sink receiving the paths
+     * @return the number of paths added
+     * @throws IOException if the sink cannot spill the paths
+     * @throws NullPointerException if the sink is null
+     */
+    public long spillFeasiblePaths(PathSpill sink) throws IOException, NullPointerException {
+        if (sink == null) {
+            throw new NullPointerException("The sink cannot be null.");
+        }
+        long[] count = new long[1];
+        try {
+            walk(Inventory.EMPTY, new InventoryWalker() {
+                @Override
+                void leaf(RestStop[] path, int depth, Inventory inventory) {
+                    try {
+                        sink.add(new ArrayList<>(Arrays.asList(path).subList(0, depth + 1)));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    count[0]++;
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return count[0];
+    }
 }
@@ -0,0 +1,169 @@
+package project Mountain;
+
+import java.lang.management.ManagementFactory;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder events for the phases of solving a mountain: loading the map file, building the tree
+ * and searching it. Each event records how much work the phase did and how many bytes it allocated, so a
+ * recording shows where the garbage comes from, for example with
+ * {@code java -XX:StartFlightRecording=filename=climb.jfr MountainClimb map.txt}.
+ * The events cost next to nothing when no recording is running.
+ *
+ * @author Leo Wu
+ */
+public final class ClimbEvents {
+
+    private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+
+    private ClimbEvents() {
+    }
+
+
+    /**
+     * Reading a map file into memory.
+     */
+    @Name("mountain.Load")
+    @Label("Load Map")
+    @Category("Mountain Climb")
+    @Description("Reading a map file")
+    @StackTrace(false)
+    public static final class Load extends Event {
+
+        @Label("File")
+        String file;
+
+        @Label("File Size")
+        @DataAmount
+        long fileBytes;
+
+        @Label("Allocated")
+        @Description("Bytes allocated while reading the file, or -1 if unknown")
+        @DataAmount
+        long allocated;
+    }
+
+    /**
+     * Parsing a map file and adding its rest stops to the mountain.
+     */
+    @Name("mountain.Build")
+    @Label("Build Mountain")
+    @Category("Mountain Climb")
+    @Description("Parsing rest stops and adding them to the tree")
+    @StackTrace(false)
+    public static final class Build extends Event {
+
+        @Label("Rest Stops")
+        long nodes;
+
+        @Label("Height")
+        int height;
+
+        @Label("Allocated")
+        @Description("Bytes allocated by the parsing and inserting threads, or -1 if unknown")
+        @DataAmount
+        long allocated;
+    }
+
+    /**
+     * Searching a mountain for feasible paths.
+     */
+    @Name("mountain.Solve")
+    @Label("Solve Mountain")
+    @Category("Mountain Climb")
+    @Description("Searching the tree for feasible paths")
+    @StackTrace(false)
+    public static final class Solve extends Event {
+
+        @Label("Solver")
+        String solver;
+
+        @Label("Rest Stops Visited")
+        long visited;
+
+        @Label("Feasible Paths")
+        long paths;
+
+        @Label("Allocated")
+        @Description("Bytes allocated by the search, or -1 if unknown")
+        @DataAmount
+        long allocated;
+
+        @Label("Allocated per Rest Stop")
+        @Description("Bytes allocated for each rest stop visited, or -1 if unknown")
+        @DataAmount
+        long allocatedPerVisit;
+    }
+
+
+   /**
+    * Gets the number of bytes allocated so far by the current thread.
+    * @return the allocated bytes, or -1 if the JVM does not measure allocation
+    */
+    public static long allocatedBytes() {
+        if (THREADS == null) {
+            return -1;
+        }
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+   /**
+    * Returns the bytes allocated since an earlier reading of {@link #allocatedBytes()} on the same thread.
+    * @param start the earlier reading
+    * @return the allocated bytes, or -1 if the JVM does not measure allocation
+    */
+    public static long allocatedSince(long start) {
+        return start < 0 ? -1 : allocatedBytes() - start;
+    }
+
+   /**
+    * Commits a solve event, computing the allocation per rest stop visited.
+    * @param event the started event
+    * @param solver the name of the solver
+    * @param visited the number of rest stops visited
+    * @param paths the number of feasible paths found
+    * @param allocated the bytes allocated by the search, or -1 if unknown
+    */
+    static void commitSolve(Solve event, String solver, long visited, long paths, long allocated) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.visited = visited;
+            event.paths = paths;
+            event.allocated = allocated;
+            event.allocatedPerVisit = allocated < 0 || visited == 0 ? -1 : allocated / visited;
+            event.commit();
+        }
+    }
+
+
+    /**
+     * Returns the thread bean if it can measure allocation, enabling the measurement if needed.
+     * @return the thread bean, or null if allocation cannot be measured
+     */
+    private static com.sun.management.ThreadMXBean threads() {
+        try {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+                return null;
+            }
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            if (!threads.isThreadAllocatedMemorySupported()) {
+                return null;
+            }
+            if (!threads.isThreadAllocatedMemoryEnabled()) {
+                threads.setThreadAllocatedMemoryEnabled(true);
+            }
+            return threads;
+        } catch (UnsupportedOperationException | SecurityException e) {
+            return null;
+        }
+    }
+}
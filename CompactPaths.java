@@ -0,0 +1,374 @@
+package project Mountain;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * A compact set of paths down the mountain, where each rest stop is a small integer id.
+ * Since every path starts at the root of the same tree, a path is fully described by its last rest stop:
+ * each rest stop keeps the id of its parent, and a path is stored as the id of its leaf. Rest stops shared
+ * by many paths are stored once, so millions of paths take a few bytes each instead of a list of objects.
+ *
+ * <p>The paths can be written to a binary stream and read back, and are only turned into labels when a
+ * path is asked for, so consumers can work with the ids without parsing any strings.
+ *
+ * @author Leo Wu
+ */
+public class CompactPaths implements Iterable<List<String>> {
+
+    private static final int MAGIC = 0x4d435031; // "MCP1"
+
+    private static final int NONE = -1;
+
+    /**
+     * Largest piece of a label read at once, so that a corrupt length cannot make the reader allocate more
+     * than the input actually holds
+     */
+    private static final int LABEL_CHUNK = 8192;
+
+    /**
+     * The label of each rest stop, by id
+     */
+    private String[] labels;
+
+    /**
+     * The id of each rest stop's parent on the paths, by id, or -1 for the first rest stop
+     */
+    private int[] parents;
+
+    /**
+     * The depth of each rest stop, by id, where the first rest stop has depth 0
+     */
+    private int[] depths;
+
+    private int nodes;
+
+    /**
+     * The id of the last rest stop of each path
+     */
+    private int[] leaves;
+
+    private int paths;
+
+
+   /**
+    * Constructs an empty set of paths.
+    */
+    public CompactPaths() {
+        labels = new String[16];
+        parents = new int[16];
+        depths = new int[16];
+        leaves = new int[16];
+    }
+
+
+   /**
+    * Returns the compact form of a list of paths that all start at the same rest stop, as returned by the solvers
+    * of {@link BSTMountain}. Rest stops that appear at the same place in several paths are stored once.
+    * @param paths the paths
+    * @return the compact paths, in the same order
+    * @throws IllegalArgumentException if a path is empty or the paths do not share their first rest stop
+    */
+    public static CompactPaths of(List<List<RestStop>> paths) throws IllegalArgumentException {
+        CompactPaths result = new CompactPaths();
+        // The ids of each rest stop's children, keyed by parent id and child
+        Map<Integer, Map<RestStop, Integer>> children = new HashMap<>();
+        for (List<RestStop> path : paths) {
+            if (path.isEmpty()) {
+                throw new IllegalArgumentException("A path cannot be empty.");
+            }
+            int id = NONE;
+            for (RestStop stop : path) {
+                Map<RestStop, Integer> known = children.computeIfAbsent(id, parent -> new HashMap<>());
+                if (id == NONE && known.size() == 1 && !known.containsKey(stop)) {
+                    throw new IllegalArgumentException("The paths do not start at the same rest stop.");
+                }
+                Integer child = known.get(stop);
+                if (child == null) {
+                    child = result.addNode(stop.getLabel(), id);
+                    known.put(stop, child);
+                }
+                id = child;
+            }
+            result.addPath(id);
+        }
+        return result;
+    }
+
+
+   /**
+    * Gets the number of paths.
+    * @return the number of paths
+    */
+    public int size() {
+        return paths;
+    }
+
+   /**
+    * Gets the number of distinct rest stops on the paths.
+    * @return the number of rest stop ids
+    */
+    public int nodeCount() {
+        return nodes;
+    }
+
+   /**
+    * Gets the id of the last rest stop of a path.
+    * @param index the index of the path
+    * @return the id of the leaf of the path
+    * @throws IndexOutOfBoundsException if there is no such path
+    */
+    public int leaf(int index) throws IndexOutOfBoundsException {
+        if (index < 0 || index >= paths) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + paths);
+        }
+        return leaves[index];
+    }
+
+   /**
+    * Gets the id of the rest stop before the given one on every path through it.
+    * @param id the id of a rest stop
+    * @return the id of its parent, or -1 if it is the first rest stop
+    * @throws IndexOutOfBoundsException if there is no such rest stop
+    */
+    public int parent(int id) throws IndexOutOfBoundsException {
+        checkNode(id);
+        return parents[id];
+    }
+
+   /**
+    * Gets the label of a rest stop.
+    * @param id the id of the rest stop
+    * @return the label of the rest stop
+    * @throws IndexOutOfBoundsException if there is no such rest stop
+    */
+    public String label(int id) throws IndexOutOfBoundsException {
+        checkNode(id);
+        return labels[id];
+    }
+
+   /**
+    * Gets the ids of the rest stops on a path, from the first one down to the leaf.
+    * @param index the index of the path
+    * @return the ids of the rest stops on the path
+    * @throws IndexOutOfBoundsException if there is no such path
+    */
+    public int[] ids(int index) throws IndexOutOfBoundsException {
+        int id = leaf(index);
+        int[] ids = new int[depths[id] + 1];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = id;
+            id = parents[id];
+        }
+        return ids;
+    }
+
+   /**
+    * Gets the labels of the rest stops on a path. The labels are looked up as they are read.
+    * @param index the index of the path
+    * @return a read-only view of the labels on the path, from the first rest stop down to the leaf
+    * @throws IndexOutOfBoundsException if there is no such path
+    */
+    public List<String> get(int index) throws IndexOutOfBoundsException {
+        int[] ids = ids(index);
+        return new AbstractList<String>() {
+            @Override
+            public String get(int i) {
+                return labels[ids[i]];
+            }
+
+            @Override
+            public int size() {
+                return ids.length;
+            }
+        };
+    }
+
+   /**
+    * Returns an iterator that decodes the paths one at a time, in order.
+    * @return an iterator over the labels of each path
+    */
+    @Override
+    public Iterator<List<String>> iterator() {
+        return new Iterator<List<String>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < paths;
+            }
+
+            @Override
+            public List<String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(next++);
+            }
+        };
+    }
+
+
+   /**
+    * Writes the paths in a compact binary form: the labels and parents of the rest stops, followed by the leaf
+    * of each path. Numbers are written as variable-length integers, so small ids take a single byte.
+    * @param out the stream to write to, which is flushed but not closed
+    * @throws IOException if the stream cannot be written
+    */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        writeVarint(data, nodes);
+        for (int id = 0; id < nodes; id++) {
+            byte[] bytes = labels[id].getBytes(StandardCharsets.UTF_8);
+            writeVarint(data, bytes.length);
+            data.write(bytes);
+            // Parents always come before their children, so store the distance back to the parent
+            writeVarint(data, parents[id] == NONE ? 0 : id - parents[id]);
+        }
+        writeVarint(data, paths);
+        for (int i = 0; i < paths; i++) {
+            writeVarint(data, leaves[i]);
+        }
+        data.flush();
+    }
+
+   /**
+    * Reads paths written by {@link #write(OutputStream)}. Exactly the bytes written are read, so the caller can
+    * keep reading whatever follows them. The stream is read a byte at a time and should be buffered by the caller.
+    * @param in the stream to read from, which is not closed
+    * @return the paths
+    * @throws IOException if the stream cannot be read or does not hold compact paths
+    */
+    public static CompactPaths read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a compact path file.");
+        }
+        CompactPaths result = new CompactPaths();
+        int nodes = readVarint(data);
+        if (nodes < 0) {
+            throw new IOException("Corrupt compact path file: bad number of rest stops");
+        }
+        for (int id = 0; id < nodes; id++) {
+            int length = readVarint(data);
+            if (length < 0) {
+                throw new IOException("Corrupt compact path file: bad label length of rest stop " + id);
+            }
+            String label;
+            try {
+                label = readLabel(data, length);
+            } catch (EOFException e) {
+                throw new IOException("Corrupt compact path file: bad label length of rest stop " + id, e);
+            }
+            int distance = readVarint(data);
+            if (distance < 0 || distance > id || (distance == 0) != (id == 0)) {
+                throw new IOException("Corrupt compact path file: bad parent of rest stop " + id);
+            }
+            result.addNode(label, distance == 0 ? NONE : id - distance);
+        }
+        int paths = readVarint(data);
+        if (paths < 0) {
+            throw new IOException("Corrupt compact path file: bad number of paths");
+        }
+        for (int i = 0; i < paths; i++) {
+            int leaf = readVarint(data);
+            if (leaf < 0 || leaf >= nodes) {
+                throw new IOException("Corrupt compact path file: bad leaf of path " + i);
+            }
+            result.addPath(leaf);
+        }
+        return result;
+    }
+
+
+   /**
+    * Adds a rest stop below the given parent.
+    * @param label the label of the rest stop
+    * @param parent the id of the parent, or -1 for the first rest stop
+    * @return the id of the new rest stop
+    */
+    int addNode(String label, int parent) {
+        if (nodes == labels.length) {
+            labels = Arrays.copyOf(labels, nodes * 2);
+            parents = Arrays.copyOf(parents, nodes * 2);
+            depths = Arrays.copyOf(depths, nodes * 2);
+        }
+        labels[nodes] = label;
+        parents[nodes] = parent;
+        depths[nodes] = parent == NONE ? 0 : depths[parent] + 1;
+        return nodes++;
+    }
+
+   /**
+    * Adds the path ending at the given rest stop.
+    * @param leaf the id of the last rest stop of the path
+    */
+    void addPath(int leaf) {
+        if (paths == leaves.length) {
+            leaves = Arrays.copyOf(leaves, paths * 2);
+        }
+        leaves[paths++] = leaf;
+    }
+
+    private void checkNode(int id) throws IndexOutOfBoundsException {
+        if (id < 0 || id >= nodes) {
+            throw new IndexOutOfBoundsException("Id: " + id + ", Rest stops: " + nodes);
+        }
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    /**
+     * Reads a label of the given length in UTF-8, in pieces of at most {@link #LABEL_CHUNK} bytes.
+     * @param in the stream to read from
+     * @param length the length of the label in bytes
+     * @return the label
+     * @throws EOFException if the stream ends before the label does
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readLabel(DataInputStream in, int length) throws EOFException, IOException {
+        byte[] bytes = new byte[Math.min(length, LABEL_CHUNK)];
+        int read = 0;
+        while (read < length) {
+            if (read == bytes.length) {
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+            }
+            int piece = Math.min(bytes.length - read, LABEL_CHUNK);
+            in.readFully(bytes, read, piece);
+            read += piece;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarint(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer.");
+    }
+}
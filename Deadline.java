@@ -0,0 +1,70 @@
+package project Mountain;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time after which a search should stop, which can also be cancelled early from another thread.
+ * Checking a deadline only reads a volatile flag and the monotonic clock, so it is cheap enough to call from
+ * inside a traversal.
+ *
+ * @author Leo Wu
+ */
+public class Deadline {
+
+    /**
+     * The value of {@link System#nanoTime()} when the deadline was created
+     */
+    private final long start;
+
+    /**
+     * The time allowed from the start, in nanoseconds
+     */
+    private final long nanos;
+
+    private final boolean bounded;
+
+    private volatile boolean cancelled;
+
+
+    private Deadline(long nanos, boolean bounded) {
+        this.start = System.nanoTime();
+        this.nanos = nanos;
+        this.bounded = bounded;
+    }
+
+
+   /**
+    * Returns a deadline that expires after the given time from now.
+    * Times too long to count in nanoseconds, such as {@link Long#MAX_VALUE}, are cut to the longest that can be.
+    * @param millis the time allowed, in milliseconds
+    * @return the new deadline
+    */
+    public static Deadline after(long millis) {
+        return new Deadline(TimeUnit.MILLISECONDS.toNanos(millis), true);
+    }
+
+   /**
+    * Returns a deadline that never expires on its own but can still be cancelled.
+    * @return the new deadline
+    */
+    public static Deadline none() {
+        return new Deadline(0, false);
+    }
+
+
+   /**
+    * Cancels the deadline, so that it is expired from now on. Can be called from any thread.
+    */
+    public void cancel() {
+        cancelled = true;
+    }
+
+   /**
+    * Returns true if the deadline was cancelled or its time has passed.
+    * @return true if the search should stop
+    */
+    public boolean expired() {
+        // Comparing the time elapsed rather than an end time cannot overflow, however long the time allowed
+        return cancelled || (bounded && System.nanoTime() - start >= nanos);
+    }
+}
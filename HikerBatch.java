@@ -0,0 +1,74 @@
+package project Mountain;
+
+import java.util.Collection;
+
+/**
+ * Represents a batch of hikers that walk the mountain together, each with its own starting inventory.
+ * The inventories are stored as primitive arrays, one entry per hiker, so that the whole batch can be
+ * updated in lockstep at every rest stop instead of simulating each hiker on its own.
+ *
+ * @author Leo Wu
+ */
+public class HikerBatch {
+
+
+    /**
+     * The starting count of each supply, by slot of {@link SupplyRules#DEFAULT} and then by hiker
+     */
+    private int[][] counts;
+
+
+   /**
+    * Constructs a batch of hikers starting with the given inventories, in iteration order.
+    * @param starts the inventory of each hiker before arriving at the summit
+    * @throws NullPointerException if the collection or any of its inventories is null
+    */
+    public HikerBatch(Collection<Inventory> starts) throws NullPointerException {
+        if (starts == null) {
+            throw new NullPointerException("The starting inventories cannot be null.");
+        }
+        counts = new int[SupplyRules.DEFAULT.slots()][starts.size()];
+        int i = 0;
+        for (Inventory start : starts) {
+            for (int slot = 0; slot < counts.length; slot++) {
+                counts[slot][i] = start.getCount(slot);
+            }
+            i++;
+        }
+    }
+
+
+   /**
+    * Returns the number of hikers in the batch.
+    * @return the number of hikers
+    */
+    public int size() {
+        return counts[0].length;
+    }
+
+
+   /**
+    * Returns the starting inventory of a hiker.
+    * @param index the position of the hiker in the batch
+    * @return the inventory the hiker starts with
+    * @throws IndexOutOfBoundsException if the index is out of range
+    */
+    public Inventory get(int index) throws IndexOutOfBoundsException {
+        int[] start = new int[counts.length];
+        for (int slot = 0; slot < counts.length; slot++) {
+            start[slot] = counts[slot][index];
+        }
+        return new Inventory(start);
+    }
+
+
+   /**
+    * Copies the starting inventories of the batch into the given arrays.
+    * @param counts the arrays receiving the count of each supply, by slot and then by hiker
+    */
+    void copyTo(int[][] counts) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            System.arraycopy(this.counts[slot], 0, counts[slot], 0, this.counts[slot].length);
+        }
+    }
+}
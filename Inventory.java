@@ -0,0 +1,260 @@
+package project Mountain;
+
+import java.util.Arrays;
+
+/**
+ * Represents an immutable snapshot of the supplies a hiker is carrying.
+ * An inventory is a value: arriving at a rest stop produces a new inventory rather than changing this one,
+ * which makes it usable as a key when the solver memoizes results per rest stop.
+ * Supplies are counted per slot of {@link SupplyRules#DEFAULT}.
+ *
+ * @author Leo Wu
+ */
+public final class Inventory {
+
+    private static final SupplyRules RULES = SupplyRules.DEFAULT;
+
+    private static final int FOOD = RULES.slot("food");
+    private static final int RAFT = RULES.slot("raft");
+    private static final int AXE = RULES.slot("axe");
+
+    /**
+     * The inventory of a hiker who has not picked up anything yet.
+     */
+    public static final Inventory EMPTY = new Inventory(new int[RULES.slots()]);
+
+    /**
+     * The number of each supply, by slot
+     */
+    private final int[] counts;
+
+
+   /**
+    * Constructs an inventory holding the given number of food, rafts and axes, and nothing else.
+    * @param food the number of food supplies
+    * @param raft the number of rafts
+    * @param axe the number of axes
+    */
+    public Inventory(int food, int raft, int axe) {
+        counts = new int[RULES.slots()];
+        counts[FOOD] = food;
+        counts[RAFT] = raft;
+        counts[AXE] = axe;
+    }
+
+   /**
+    * Constructs an inventory that takes ownership of the given counts, which must not be modified afterwards.
+    * @param counts the number of each supply, by slot
+    */
+    Inventory(int[] counts) {
+        this.counts = counts;
+    }
+
+
+   /**
+    * Returns an inventory holding the given number of each supply.
+    * @param counts the number of each supply, indexed by the slots of {@link SupplyRules#DEFAULT}
+    * @return the inventory
+    * @throws IllegalArgumentException if there is not exactly one count per slot
+    */
+    public static Inventory of(int[] counts) throws IllegalArgumentException {
+        if (counts.length != RULES.slots()) {
+            throw new IllegalArgumentException("Expected " + RULES.slots() + " supply counts, got " + counts.length);
+        }
+        return new Inventory(counts.clone());
+    }
+
+
+   /**
+    * Returns the inventory after the hiker arrives at the given rest stop.
+    * Every step after the first one costs the step cost of the rules, each obstacle costs the supply it needs,
+    * and each supply at the rest stop is picked up. Supplies are handled in the order they are listed at the stop.
+    * @param stop the rest stop the hiker arrives at
+    * @param first true if this is the first rest stop of the path, which does not cost food
+    * @return the new inventory, or null if the hiker cannot get past this rest stop
+    */
+    public Inventory arrive(RestStop stop, boolean first) {
+        return arrive(stop.getCodes(), first);
+    }
+
+   /**
+    * Returns the inventory after the hiker arrives at a rest stop with the given supplies.
+    * @param codes the rule codes of the supplies at the rest stop, in order
+    * @param first true if this is the first rest stop of the path, which does not cost food
+    * @return the new inventory, or null if the hiker cannot get past this rest stop
+    */
+    Inventory arrive(int[] codes, boolean first) {
+        int[] next = counts.clone();
+        // Every step down the mountain costs one unit of the step cost
+        if (!first && --next[RULES.stepCost()] < 0) {
+            return null;
+        }
+        // Handle the obstacles and supplies at the rest stop in order
+        for (int code : codes) {
+            int slot = RULES.consumes(code);
+            if (slot >= 0) {
+                if (--next[slot] < 0) {
+                    return null;
+                }
+            } else {
+                next[RULES.gives(code)]++;
+            }
+        }
+        return new Inventory(next);
+    }
+
+
+   /**
+    * Returns this inventory with the supplies offered at a rest stop added, ignoring costs and obstacles.
+    * @param stop the rest stop
+    * @return the inventory after picking up everything offered at the rest stop
+    */
+    public Inventory plus(RestStop stop) {
+        int[] next = counts.clone();
+        for (int code : stop.getCodes()) {
+            int slot = RULES.gives(code);
+            if (slot >= 0) {
+                next[slot]++;
+            }
+        }
+        return new Inventory(next);
+    }
+
+
+   /**
+    * Returns the sum of this inventory and another one.
+    * @param other the inventory to add
+    * @return an inventory holding the supplies of both inventories
+    */
+    public Inventory plus(Inventory other) {
+        int[] next = counts.clone();
+        for (int slot = 0; slot < next.length; slot++) {
+            next[slot] += other.counts[slot];
+        }
+        return new Inventory(next);
+    }
+
+
+   /**
+    * Returns the componentwise maximum of this inventory and another one.
+    * @param other the inventory to compare with
+    * @return an inventory holding, for each supply, the larger count of the two inventories
+    */
+    public Inventory max(Inventory other) {
+        int[] next = counts.clone();
+        for (int slot = 0; slot < next.length; slot++) {
+            next[slot] = Math.max(next[slot], other.counts[slot]);
+        }
+        return new Inventory(next);
+    }
+
+
+   /**
+    * Gets the number of a supply.
+    * @param slot the slot of the supply in {@link SupplyRules#DEFAULT}
+    * @return the number of the supply carried
+    */
+    public int getCount(int slot) {
+        return counts[slot];
+    }
+
+
+   /**
+    * Gets the number of food supplies.
+    * @return the number of food supplies
+    */
+    public int getFood() {
+        return counts[FOOD];
+    }
+
+
+   /**
+    * Gets the number of rafts.
+    * @return the number of rafts
+    */
+    public int getRaft() {
+        return counts[RAFT];
+    }
+
+
+   /**
+    * Gets the number of axes.
+    * @return the number of axes
+    */
+    public int getAxe() {
+        return counts[AXE];
+    }
+
+
+   /**
+    * Returns true if this inventory holds at least as much of every supply as another one.
+    * A hiker with a dominating inventory can follow any path the other hiker can, and finishes with at least as much.
+    * @param other the inventory to compare with
+    * @return true if this inventory dominates the other one
+    */
+    public boolean dominates(Inventory other) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] < other.counts[slot]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+   /**
+    * Gets the total number of supplies carried.
+    * @return the sum of the counts of every supply
+    */
+    public int total() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+
+   /**
+    * Compares this inventory with the specified object for equality.
+    * @param o the object to be compared
+    * @return true if the object is an inventory holding the same number of each supply
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Inventory)) {
+            return false;
+        }
+        return Arrays.equals(counts, ((Inventory) o).counts);
+    }
+
+
+   /**
+    * Returns a hash code consistent with {@link #equals(Object)}.
+    * @return the hash code of this inventory
+    */
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(counts);
+    }
+
+
+   /**
+    * Returns a readable form of this inventory.
+    * @return the supplies carried, for example "food=2 raft=0 axe=1"
+    */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (slot > 0) {
+                result.append(' ');
+            }
+            result.append(RULES.supply(slot)).append('=').append(counts[slot]);
+        }
+        return result.toString();
+    }
+}
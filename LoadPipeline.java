@@ -0,0 +1,296 @@
+package project Mountain;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Loads a mountain with a three-stage pipeline so that disk I/O, parsing and tree construction overlap.
+ * A reader thread reads batches of lines, a parser thread turns them into rest stops, and the calling thread
+ * adds the rest stops to the mountain in file order. The stages are connected by bounded queues, and each
+ * stage records how long it worked, how long it waited for input and how long it was held back by a full queue,
+ * which shows which stage is the bottleneck.
+ *
+ * @author Leo Wu
+ */
+public class LoadPipeline {
+
+    /**
+     * Throughput and backpressure metrics of one stage of the pipeline.
+     */
+    public static class Stage {
+        private final String name;
+        private long items;
+        private long busyNanos;
+        private long starvedNanos;
+        private long blockedNanos;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Gets the name of the stage.
+         * @return the name of the stage
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the number of items the stage handled: lines for the reader, rest stops for the parser and the builder.
+         * @return the number of items handled
+         */
+        public long getItems() {
+            return items;
+        }
+
+        /**
+         * Gets the time the stage spent working, excluding time spent waiting on a queue.
+         * @return the working time in nanoseconds
+         */
+        public long getBusyNanos() {
+            return busyNanos;
+        }
+
+        /**
+         * Gets the time the stage spent waiting for input from the previous stage.
+         * @return the waiting time in nanoseconds
+         */
+        public long getStarvedNanos() {
+            return starvedNanos;
+        }
+
+        /**
+         * Gets the time the stage spent blocked because the next stage's queue was full.
+         * @return the blocked time in nanoseconds
+         */
+        public long getBlockedNanos() {
+            return blockedNanos;
+        }
+
+        /**
+         * Gets the number of items handled per second of working time.
+         * @return the throughput of the stage, or 0 if it did no work
+         */
+        public double getThroughput() {
+            return busyNanos == 0 ? 0 : items * 1e9 / busyNanos;
+        }
+
+        /**
+         * Returns a one-line summary of the stage's metrics.
+         * @return the metrics of the stage
+         */
+        @Override
+        public String toString() {
+            return String.format("%s: %d items, busy %d ms (%.0f/s), starved %d ms, blocked %d ms", name, items,
+                    busyNanos / 1000000, getThroughput(), starvedNanos / 1000000, blockedNanos / 1000000);
+        }
+    }
+
+    /**
+     * Marks the end of the lines, compared by identity
+     */
+    private static final List<String> END_OF_LINES = new ArrayList<>();
+
+    /**
+     * Marks the end of the rest stops, compared by identity
+     */
+    private static final List<RestStop> END_OF_STOPS = new ArrayList<>();
+
+    private final int batchSize;
+
+    private final int capacity;
+
+    private Stage read;
+
+    private Stage parse;
+
+    private Stage build;
+
+
+    /**
+     * Constructs a pipeline that passes items between stages in batches.
+     * @param batchSize the number of lines or rest stops passed between stages at a time
+     * @param capacity the number of batches each queue can hold before the stage feeding it is held back
+     * @throws IllegalArgumentException if the batch size or capacity is not positive
+     */
+    public LoadPipeline(int batchSize, int capacity) throws IllegalArgumentException {
+        if (batchSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("The batch size and capacity must be positive.");
+        }
+        this.batchSize = batchSize;
+        this.capacity = capacity;
+    }
+
+
+    /**
+     * Loads a mountain from the map file, with the same result as {@link MountainLoader#load(File)}.
+     * @param file the map file
+     * @return the mountain described by the file
+     * @throws IOException if the file cannot be read or the load is interrupted
+     */
+    public BSTMountain load(File file) throws IOException {
+        read = new Stage("read");
+        parse = new Stage("parse");
+        build = new Stage("build");
+        BlockingQueue<List<String>> lines = new ArrayBlockingQueue<>(capacity);
+        BlockingQueue<List<RestStop>> stops = new ArrayBlockingQueue<>(capacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        Thread reader = new Thread(() -> readLines(file, lines, failure), "mountain-reader");
+        Thread parser = new Thread(() -> parseLines(lines, stops, failure), "mountain-parser");
+        reader.setDaemon(true);
+        parser.setDaemon(true);
+        reader.start();
+        parser.start();
+
+        BSTMountain mountain = new BSTMountain();
+        try {
+            while (true) {
+                long start = System.nanoTime();
+                List<RestStop> batch = stops.take();
+                long taken = System.nanoTime();
+                build.starvedNanos += taken - start;
+                if (batch == END_OF_STOPS) {
+                    break;
+                }
+                for (RestStop stop : batch) {
+                    mountain.add(stop);
+                }
+                build.items += batch.size();
+                build.busyNanos += System.nanoTime() - taken;
+            }
+            // After a failure the reader may be stuck on a full queue, so only wait for the stages after a clean run
+            if (failure.get() == null) {
+                reader.join();
+                parser.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file, e);
+        } finally {
+            // Stop the other stages if the mountain could not be built
+            reader.interrupt();
+            parser.interrupt();
+        }
+
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        } else if (cause != null) {
+            throw new IOException("Cannot load " + file, cause);
+        }
+        return mountain;
+    }
+
+    /**
+     * Returns the metrics of the reader, parser and builder stages of the last load, in that order.
+     * @return the metrics of each stage, or an empty list if nothing was loaded yet
+     */
+    public List<Stage> getStages() {
+        return read == null ? new ArrayList<>() : Arrays.asList(read, parse, build);
+    }
+
+
+    /**
+     * Reads the non-empty lines of the file in batches. Always ends the stream, even if reading fails.
+     * @param file the map file
+     * @param lines the queue receiving batches of lines
+     * @param failure the first error of any stage
+     */
+    private void readLines(File file, BlockingQueue<List<String>> lines, AtomicReference<Throwable> failure) {
+        long start = System.nanoTime();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            List<String> batch = new ArrayList<>(batchSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    batch.add(line);
+                }
+                if (batch.size() == batchSize) {
+                    start = put(lines, batch, read, start);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                start = put(lines, batch, read, start);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } catch (InterruptedException e) {
+            return;
+        }
+        try {
+            put(lines, END_OF_LINES, read, start);
+        } catch (InterruptedException e) {
+            // The builder has given up, so nobody is waiting for the end of the stream
+        }
+    }
+
+    /**
+     * Parses batches of lines into rest stops until the end of the lines. Always ends the stream, even if parsing fails.
+     * @param lines the queue of batches of lines
+     * @param stops the queue receiving batches of rest stops
+     * @param failure the first error of any stage
+     */
+    private void parseLines(BlockingQueue<List<String>> lines, BlockingQueue<List<RestStop>> stops,
+                            AtomicReference<Throwable> failure) {
+        long start = System.nanoTime();
+        try {
+            while (true) {
+                List<String> batch = lines.take();
+                long taken = System.nanoTime();
+                parse.starvedNanos += taken - start;
+                if (batch == END_OF_LINES) {
+                    break;
+                }
+                List<RestStop> parsed = new ArrayList<>(batch.size());
+                for (String line : batch) {
+                    parsed.add(new RestStop(line.split(" ")));
+                }
+                start = put(stops, parsed, parse, taken);
+            }
+            put(stops, END_OF_STOPS, parse, System.nanoTime());
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            try {
+                stops.put(END_OF_STOPS);
+            } catch (InterruptedException ignored) {
+                // The builder has given up, so nobody is waiting for the end of the stream
+            }
+        } catch (InterruptedException e) {
+            // The builder has given up
+        }
+    }
+
+    /**
+     * Hands a batch to the next stage, recording the work since the given time and the time blocked on a full queue.
+     * @param queue the queue of the next stage
+     * @param batch the batch to hand over
+     * @param stage the metrics of the stage handing over the batch
+     * @param since the time the stage started working on the batch
+     * @param <T> the type of items in the batch
+     * @return the time the batch was accepted, when the stage starts working again
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    private static <T> long put(BlockingQueue<List<T>> queue, List<T> batch, Stage stage, long since)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        stage.busyNanos += start - since;
+        stage.items += batch.size();
+        queue.put(batch);
+        long accepted = System.nanoTime();
+        stage.blockedNanos += accepted - start;
+        return accepted;
+    }
+}
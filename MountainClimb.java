@@ -1,6 +1,8 @@
 package project Mountain;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -15,10 +17,25 @@ import java.util.List;
  */
 public class MountainClimb {
 
+    /**
+     * The solver parameters that cached results depend on
+     */
+    private static final String SOLVER = "feasible paths v1; " + SupplyRules.DEFAULT;
+
+    /**
+     * Size budget of the result cache, in bytes
+     */
+    private static final long CACHE_BYTES = 1L << 30;
+
+    /**
+     * Time a cached result is kept since it was last used, in milliseconds
+     */
+    private static final long CACHE_AGE = 7L * 24 * 60 * 60 * 1000;
+
     public static void main(String[] args)  {
         // Check if the correct number of command line arguments is provided
         if (args.length < 1) {
-            System.err.println("Usage: java Simulation <input file> ");
+            System.err.println("Usage: java Simulation <input file> [cache directory]");
             System.exit(1);
         }
 
@@ -29,66 +46,86 @@ public class MountainClimb {
             System.exit(1);
         }
 
+        // Answer from the result cache if one is given and the same map was solved before
+        ResultCache cache = null;
+        byte[] content = null;
+        if (args.length > 1) {
+            try {
+                cache = new ResultCache(Paths.get(args[1]), CACHE_BYTES, CACHE_AGE);
+                content = Files.readAllBytes(fileMap.toPath());
+                List<List<String>> cached = cache.get(content, SOLVER);
+                if (cached != null) {
+                    for (List<String> labels : cached) {
+                        String result = "";
+                        for (String label : labels) {
+                            result += label + " ";
+                        }
+                        System.out.println(result);
+                    }
+                    return;
+                }
+            } catch (IOException e) {
+                // Solve without the cache if it cannot be used
+                System.err.println("Cache error: " + args[1]);
+                cache = null;
+            }
+        }
+
         // Create an instance of BSTMountain to represent the mountain
-        BSTMountain mountain = new BSTMountain();
+        BSTMountain mountain = null;
 
         try {
-            // Read from the input file
-            BufferedReader reader = new BufferedReader(new FileReader(fileMap));
-            String line;
-            // Split the line by space and add each segment as a RestStop to the mountain
-            while ((line = reader.readLine()) != null) {
-                if (!line.isEmpty()) {
-                    String[] arr = line.split(" ");
-                    mountain.add(new RestStop(arr));
-                }
-            }
+            // Read from the input file, parsing large files on all available cores
+            mountain = MountainLoader.loadParallel(fileMap, Runtime.getRuntime().availableProcessors());
         } catch (IOException e) {
             // Handle file reading errors
             System.err.println("Read file error: " + args[0]);
             System.exit(1);
         }
 
+        // Record the search, with the bytes it allocates, when a flight recording is running
+        ClimbEvents.Solve solve = new ClimbEvents.Solve();
+        long allocated = solve.isEnabled() ? ClimbEvents.allocatedBytes() : -1;
+        long visited = 0;
+        solve.begin();
+
         // Perform DFS traversal on the mountain to get all possible paths
         List<List<RestStop>> paths = mountain.dfs();
+        List<List<RestStop>> feasible = new ArrayList<>();
         for (List<RestStop> path : paths) {
             if(path.size() == mountain.height()){
-                Hiker hiker = new Hiker();
+                Inventory inventory = Inventory.EMPTY;
                 boolean flag = true;
                 String result = "";
                 // Traverse each RestStop in the path
                 for (int i = 0; i < path.size(); i++) {
                     RestStop restStop = path.get(i);
                     result+=restStop.getLabel()+" ";
-                    // Check if hiker has enough food supply for the journey
-                    if(i!=0){
-                        if (!hiker.expendSupply("food")) {
-                            flag = false;
-                            break;
-                        }
-                    }
-                    // Check and manage different supplies encountered at RestStops
-                    for (String supply : restStop.getSupplies()) {
-                        if(supply.equals("river")){
-                            if (!hiker.expendSupply("raft")) {
-                                flag = false;
-                                break;
-                            }
-                        }else if(supply.equals("fallen tree")){
-                            if (!hiker.expendSupply("axe")) {
-                                flag = false;
-                                break;
-                            }
-                        }else{
-                            hiker.addSupply(supply);
-                        }
+                    // Pay for the step and handle the supplies and obstacles at the RestStop using the rule table
+                    inventory = inventory.arrive(restStop, i == 0);
+                    visited++;
+                    if (inventory == null) {
+                        flag = false;
+                        break;
                     }
                 }
                 // Display the result if hiker has successfully completed the path
                 if(flag) {
                     System.out.println(result);
+                    feasible.add(path);
                 }
             }
         }
+
+        ClimbEvents.commitSolve(solve, "dfs", visited, feasible.size(), ClimbEvents.allocatedSince(allocated));
+
+        // Remember the result for the next time the same map is solved
+        if (cache != null) {
+            try {
+                cache.put(content, SOLVER, feasible);
+            } catch (IOException e) {
+                System.err.println("Cache error: " + args[1]);
+            }
+        }
     }
 }
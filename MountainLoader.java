@@ -0,0 +1,310 @@
+package project Mountain;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads a mountain from a map file where each non-empty line describes a rest stop: its label followed by
+ * its supplies, separated by spaces. Rest stops are always added in file order, since the shape of the
+ * mountain depends on the order of insertion.
+ *
+ * @author Leo Wu
+ */
+public class MountainLoader {
+
+    /**
+     * Size of a chunk handed to a worker thread, in characters; smaller files are parsed on the calling thread
+     */
+    private static final int CHUNK = 256 * 1024;
+
+    /**
+     * Number of chunks per worker thread that may be read or parsed ahead of the insertion into the mountain
+     */
+    private static final int CHUNKS_AHEAD = 2;
+
+
+    /**
+     * Reads a map file as a series of chunks that each end at a line terminator, so that no line is split
+     * between two chunks. A line longer than a chunk makes its chunk longer.
+     */
+    private static class ChunkReader implements Closeable {
+        private final Reader reader;
+        private char[] buffer = new char[CHUNK];
+        private int length;
+        private boolean eof;
+
+        /**
+         * Bytes allocated by the current thread while reading, or -1 if they are not being measured
+         */
+        private long allocated;
+
+        ChunkReader(File file, boolean measure) throws IOException {
+            reader = new InputStreamReader(Files.newInputStream(file.toPath()), Charset.defaultCharset());
+            allocated = measure ? 0 : -1;
+        }
+
+        /**
+         * Reads the next chunk.
+         * @return the next chunk, or null at the end of the file
+         * @throws IOException if the file cannot be read
+         */
+        String next() throws IOException {
+            long start = allocated < 0 ? -1 : ClimbEvents.allocatedBytes();
+            String chunk = null;
+            while (chunk == null) {
+                while (!eof && length < buffer.length) {
+                    int read = reader.read(buffer, length, buffer.length - length);
+                    if (read < 0) {
+                        eof = true;
+                    } else {
+                        length += read;
+                    }
+                }
+                int end = eof ? length : lineEnd();
+                if (end > 0) {
+                    chunk = new String(buffer, 0, end);
+                    System.arraycopy(buffer, end, buffer, 0, length - end);
+                    length -= end;
+                } else if (eof) {
+                    break;
+                } else {
+                    // No line ends within the buffer, so the chunk has to hold a longer line
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                }
+            }
+            if (allocated >= 0) {
+                allocated += ClimbEvents.allocatedSince(start);
+            }
+            return chunk;
+        }
+
+        /**
+         * Returns true once every chunk has been read.
+         * @return true at the end of the file
+         */
+        boolean atEnd() {
+            return eof && length == 0;
+        }
+
+        /**
+         * Finds the end of the last complete line in the buffer. A carriage return in the last position may be
+         * the first half of a line break, so it only ends a line once the next character is known.
+         * @return the offset just after the last line terminator, or 0 if there is none
+         */
+        private int lineEnd() {
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer[i] == '\n' || (buffer[i] == '\r' && i + 1 < length)) {
+                    return i + 1;
+                }
+            }
+            return 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+
+    /**
+     * Loads a mountain by reading and parsing the map file one line at a time.
+     * @param file the map file
+     * @return the mountain described by the file
+     * @throws IOException if the file cannot be read
+     */
+    public static BSTMountain load(File file) throws IOException {
+        BSTMountain mountain = new BSTMountain();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            // Split the line by space and add each segment as a RestStop to the mountain
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    mountain.add(new RestStop(line.split(" ")));
+                }
+            }
+        }
+        return mountain;
+    }
+
+    /**
+     * Loads a mountain by reading the map file in line-aligned chunks and parsing the chunks on worker threads.
+     * The parsed rest stops are then added to the mountain in file order, so the result is the same as {@link #load(File)}.
+     * Only a few chunks per thread are held at once, read or parsed ahead of the insertion, so the memory used besides
+     * the mountain itself does not grow with the size of the file.
+     * @param file the map file
+     * @param threads the number of worker threads
+     * @return the mountain described by the file
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if the number of threads is not positive
+     */
+    public static BSTMountain loadParallel(File file, int threads) throws IOException, IllegalArgumentException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive: " + threads);
+        }
+        ClimbEvents.Load load = new ClimbEvents.Load();
+        ClimbEvents.Build build = new ClimbEvents.Build();
+        long allocated = load.isEnabled() || build.isEnabled() ? ClimbEvents.allocatedBytes() : -1;
+        // Bytes allocated by the worker threads, which only measure their own allocation
+        AtomicLong workerAllocated = new AtomicLong();
+        load.begin();
+        build.begin();
+        BSTMountain mountain = new BSTMountain();
+        try (ChunkReader reader = new ChunkReader(file, allocated >= 0)) {
+            String chunk = reader.next();
+            if (reader.atEnd()) {
+                commitLoad(load, file, reader);
+                if (chunk != null) {
+                    addAll(mountain, parse(chunk, 0, chunk.length()));
+                }
+            } else {
+                parseAhead(file, threads, reader, chunk, mountain, load, build, workerAllocated);
+            }
+            long own = ClimbEvents.allocatedSince(allocated);
+            commitBuild(build, mountain, own < 0 ? -1 : own - reader.allocated + workerAllocated.get());
+        }
+        return mountain;
+    }
+
+    /**
+     * Parses the chunks of a map file on worker threads while adding the rest stops of the earlier chunks to the
+     * mountain, keeping at most {@link #CHUNKS_AHEAD} chunks per thread in memory.
+     * @param file the map file
+     * @param threads the number of worker threads
+     * @param reader the reader of the chunks
+     * @param first the first chunk, already read
+     * @param mountain the mountain to add the rest stops to
+     * @param load the started load event, committed once the whole file is read
+     * @param build the started build event
+     * @param workerAllocated receives the bytes allocated by the worker threads
+     * @throws IOException if the file cannot be read or a chunk cannot be parsed
+     */
+    private static void parseAhead(File file, int threads, ChunkReader reader, String first, BSTMountain mountain,
+                                   ClimbEvents.Load load, ClimbEvents.Build build, AtomicLong workerAllocated)
+            throws IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            // Chunks submitted for parsing in file order, whose rest stops are not yet in the mountain
+            Deque<Future<List<RestStop>>> pending = new ArrayDeque<>();
+            String chunk = first;
+            while (chunk != null || !pending.isEmpty()) {
+                while (chunk != null && pending.size() < CHUNKS_AHEAD * threads) {
+                    String text = chunk;
+                    pending.add(pool.submit(() -> {
+                        long start = build.isEnabled() ? ClimbEvents.allocatedBytes() : -1;
+                        List<RestStop> stops = parse(text, 0, text.length());
+                        workerAllocated.addAndGet(ClimbEvents.allocatedSince(start));
+                        return stops;
+                    }));
+                    chunk = reader.next();
+                    if (chunk == null) {
+                        commitLoad(load, file, reader);
+                    }
+                }
+                // Insert the oldest chunk, while later chunks may still be parsing
+                addAll(mountain, pending.remove().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading " + file, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IOException("Cannot parse " + file, e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Parses the lines of a chunk into rest stops, treating line terminators as {@link BufferedReader#readLine()} does.
+     * @param text the text of the chunk
+     * @param start the offset of the first character of the chunk
+     * @param end the offset just after the last character of the chunk
+     * @return the rest stops described by the non-empty lines of the chunk, in order
+     */
+    private static List<RestStop> parse(String text, int start, int end) {
+        List<RestStop> stops = new ArrayList<>();
+        int lineStart = start;
+        for (int i = start; i <= end; i++) {
+            char c = i < end ? text.charAt(i) : '\n';
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            if (i > lineStart) {
+                stops.add(new RestStop(text.substring(lineStart, i).split(" ")));
+            }
+            // A carriage return followed by a line feed ends a single line
+            if (c == '\r' && i + 1 < end && text.charAt(i + 1) == '\n') {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+        return stops;
+    }
+
+    /**
+     * Ends and commits a load event for the file, if it is being recorded, once the reader has read all of it.
+     * @param load the started event
+     * @param file the map file
+     * @param reader the reader of the file
+     */
+    private static void commitLoad(ClimbEvents.Load load, File file, ChunkReader reader) {
+        load.end();
+        if (load.shouldCommit()) {
+            load.file = file.getPath();
+            load.fileBytes = file.length();
+            load.allocated = reader.allocated;
+            load.commit();
+        }
+    }
+
+    /**
+     * Ends and commits a build event for the mountain, if it is being recorded.
+     * @param build the started event
+     * @param mountain the mountain that was built
+     * @param allocated the bytes allocated while building it, or -1 if unknown
+     */
+    private static void commitBuild(ClimbEvents.Build build, BSTMountain mountain, long allocated) {
+        build.end();
+        if (build.shouldCommit()) {
+            build.nodes = mountain.size();
+            build.height = mountain.height();
+            build.allocated = allocated;
+            build.commit();
+        }
+    }
+
+    /**
+     * Adds rest stops to the mountain in order.
+     * @param mountain the mountain to add to
+     * @param stops the rest stops to add
+     */
+    private static void addAll(BSTMountain mountain, List<RestStop> stops) {
+        for (RestStop stop : stops) {
+            mountain.add(stop);
+        }
+    }
+}
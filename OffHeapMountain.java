@@ -0,0 +1,772 @@
+package project Mountain;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A mountain whose rest stops are stored outside the Java heap. Every node is a record in direct
+ * {@link ByteBuffer}s, optionally mapped from a file so that the operating system can page them in and out.
+ * Children are referenced by offsets, labels are stored as UTF-16 characters and supplies as one-byte codes,
+ * so lookups and path solving run directly against the buffers without creating node objects.
+ * The tree has the same shape as a {@link BSTMountain} built from the same sequence of additions.
+ *
+ * <p>Node records have the layout {@code [left][right][height][label length][supply count][label chars][supply codes]},
+ * where the links are long offsets, -1 meaning there is no child, and the next three fields are ints.
+ * Supply codes are stored as unsigned bytes, so only rest stops whose rule codes are at most 255 can be added.
+ * Nodes cannot be removed.
+ *
+ * <p>A single buffer holds at most 2 GB, so the records are spread over segments of 1 GB each, and an offset
+ * is the index of the segment followed by the position within it. A record never spans two segments, so no
+ * rest stop may take more than a segment; the size of the whole mountain is only limited by memory or by the
+ * size of the backing file.
+ *
+ * @author Leo Wu
+ */
+public class OffHeapMountain implements Iterable<RestStop> {
+
+    private static final int LEFT = 0;
+    private static final int RIGHT = 8;
+    private static final int HEIGHT = 16;
+    private static final int LABEL_LENGTH = 20;
+    private static final int SUPPLY_COUNT = 24;
+    private static final int LABEL = 28;
+
+    private static final long NONE = -1;
+
+    /**
+     * The largest rule code that fits in the byte stored for each supply
+     */
+    private static final int MAX_CODE = 0xff;
+
+    /**
+     * Number of bits of an offset used for the position within a segment, giving segments of 1 GB
+     */
+    private static final int SEGMENT_BITS = 30;
+
+    /**
+     * The rules whose codes are stored for the supplies of each rest stop
+     */
+    private static final SupplyRules RULES = SupplyRules.DEFAULT;
+
+    /**
+     * The segments holding the node records, each with its position marking the end of its last record
+     */
+    private final List<ByteBuffer> segments = new ArrayList<>();
+
+    /**
+     * Number of bits of an offset used for the position within a segment
+     */
+    private final int segmentBits;
+
+    /**
+     * The size a new segment starts at before it grows
+     */
+    private final int initialCapacity;
+
+    /**
+     * The file backing the segments, or null if they are only in memory
+     */
+    private FileChannel channel;
+
+    /**
+     * the size of tree
+     */
+    private int size;
+
+
+    /**
+     * Constructs a new, empty mountain stored in direct buffers, the first of the given initial capacity.
+     * The buffers grow as rest stops are added.
+     * @param capacity the initial capacity of the buffer in bytes
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public OffHeapMountain(int capacity) throws IllegalArgumentException {
+        this(capacity, SEGMENT_BITS);
+    }
+
+    /**
+     * Constructs a new, empty mountain stored in a file mapped into memory. The file is created if needed,
+     * its previous contents are discarded, and it grows as rest stops are added.
+     * @param file the file backing the mountain
+     * @param capacity the initial size of the mapping in bytes
+     * @throws IOException if the file cannot be opened or mapped
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public OffHeapMountain(Path file, int capacity) throws IOException, IllegalArgumentException {
+        this(file, capacity, SEGMENT_BITS);
+    }
+
+    /**
+     * Constructs a new, empty mountain stored in direct buffers with segments of the given size.
+     * @param capacity the initial capacity of the buffer in bytes
+     * @param segmentBits the size of a segment, as a power of two
+     * @throws IllegalArgumentException if the capacity is not positive or the segment size is out of range
+     */
+    OffHeapMountain(int capacity, int segmentBits) throws IllegalArgumentException {
+        this.segmentBits = checkSegmentBits(segmentBits);
+        initialCapacity = checkCapacity(capacity, segmentBits);
+        segments.add(ByteBuffer.allocateDirect(initialCapacity));
+    }
+
+    /**
+     * Constructs a new, empty mountain stored in a file mapped into memory, with segments of the given size.
+     * @param file the file backing the mountain
+     * @param capacity the initial size of the mapping in bytes
+     * @param segmentBits the size of a segment, as a power of two
+     * @throws IOException if the file cannot be opened or mapped
+     * @throws IllegalArgumentException if the capacity is not positive or the segment size is out of range
+     */
+    OffHeapMountain(Path file, int capacity, int segmentBits) throws IOException, IllegalArgumentException {
+        this.segmentBits = checkSegmentBits(segmentBits);
+        initialCapacity = checkCapacity(capacity, segmentBits);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 0, initialCapacity));
+    }
+
+
+    /**
+     * Adds the specified rest stop to this mountain if no rest stop with the same label is already present.
+     * @param e rest stop to be added
+     * @return true if this mountain did not already contain the rest stop
+     * @throws NullPointerException if the specified rest stop is null
+     * @throws IllegalArgumentException if the rest stop does not fit in a segment or has a rule code above 255
+     * @throws IllegalStateException if the buffers cannot grow any further
+     */
+    public boolean add(RestStop e) throws NullPointerException, IllegalArgumentException, IllegalStateException {
+        if (e == null) {
+            throw new NullPointerException("Cannot add a null element to the mountain.");
+        }
+        String label = e.getLabel();
+        if (size == 0) {
+            append(e);
+            return true;
+        }
+
+        // Walk down to the insertion point, remembering the path so that heights can be updated afterwards
+        long[] path = new long[height() + 1];
+        int depth = 0;
+        long node = 0;
+        while (true) {
+            path[depth++] = node;
+            int cmp = compareLabel(label, node);
+            if (cmp == 0) {
+                return false;
+            }
+            long link = node + (cmp < 0 ? LEFT : RIGHT);
+            long child = getLong(link);
+            if (child == NONE) {
+                // Append first, since appending may replace a segment with a larger one
+                long added = append(e);
+                segment(link).putLong(position(link), added);
+                break;
+            }
+            node = child;
+        }
+
+        // Update the heights along the path, from the parent of the new node up to the root
+        while (depth > 0) {
+            node = path[--depth];
+            int height = Math.max(heightOf(getLong(node + LEFT)), heightOf(getLong(node + RIGHT))) + 1;
+            if (getInt(node + HEIGHT) == height) {
+                break;
+            }
+            segment(node).putInt(position(node) + HEIGHT, height);
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if this mountain contains a rest stop with the label of the specified rest stop.
+     * @param o rest stop to be checked for containment in this mountain
+     * @return true if this mountain contains the rest stop
+     * @throws NullPointerException if the specified rest stop is null
+     */
+    public boolean contains(RestStop o) throws NullPointerException {
+        if (o == null) {
+            throw new NullPointerException("The object to check for presence cannot be null.");
+        }
+        String label = o.getLabel();
+        long node = size == 0 ? NONE : 0;
+        while (node != NONE) {
+            int cmp = compareLabel(label, node);
+            if (cmp == 0) {
+                return true;
+            }
+            node = getLong(node + (cmp < 0 ? LEFT : RIGHT));
+        }
+        return false;
+    }
+
+    /**
+     * Returns the height of the mountain, counted in rest stops along the longest path.
+     * @return the height of the mountain, or 0 if it is empty
+     */
+    public int height() {
+        return size == 0 ? 0 : getInt(HEIGHT);
+    }
+
+    /**
+     * Returns true if this mountain contains no rest stops.
+     * @return true if this mountain contains no rest stops
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of rest stops in this mountain.
+     * @return the number of rest stops in this mountain
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes of the buffers used by node records.
+     * @return the number of bytes used
+     */
+    public long bytesUsed() {
+        long used = 0;
+        for (ByteBuffer segment : segments) {
+            used += segment.position();
+        }
+        return used;
+    }
+
+    /**
+     * Writes any changes of a file-backed mountain to the file. Does nothing for a mountain kept in memory.
+     */
+    public void force() {
+        for (ByteBuffer segment : segments) {
+            if (segment instanceof MappedByteBuffer) {
+                ((MappedByteBuffer) segment).force();
+            }
+        }
+    }
+
+    /**
+     * Closes the file backing the mountain, if any. The mappings stay readable until they are garbage collected.
+     * @throws IOException if the file cannot be closed
+     */
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns an iterator over the rest stops in ascending order of their labels.
+     * Each rest stop is rebuilt from its record; use {@link #views()} to read the records without copying them.
+     * @return an iterator over the rest stops in inorder
+     */
+    public Iterator<RestStop> iterator() {
+        Iterator<View> views = views().iterator();
+        return new Iterator<RestStop>() {
+            @Override
+            public boolean hasNext() {
+                return views.hasNext();
+            }
+
+            @Override
+            public RestStop next() {
+                return views.next().toRestStop();
+            }
+        };
+    }
+
+    /**
+     * Returns the rest stops in ascending order of their labels as views of their records.
+     * Iterating reuses a single view, which is moved to the next record by every call to {@code next()},
+     * so a view must be read or converted with {@link View#toRestStop()} before moving on.
+     * @return the rest stops in inorder, as views
+     */
+    public Iterable<View> views() {
+        return () -> new Iterator<View>() {
+            private final long[] stack = new long[height() + 1];
+            private int top = 0;
+            private final View view = new View();
+
+            {
+                pushLeftChildren(size == 0 ? NONE : 0);
+            }
+
+            private void pushLeftChildren(long node) {
+                while (node != NONE) {
+                    stack[top++] = node;
+                    node = getLong(node + LEFT);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return top > 0;
+            }
+
+            @Override
+            public View next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long node = stack[--top];
+                pushLeftChildren(getLong(node + RIGHT));
+                view.node = node;
+                return view;
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over the rest stops in order of the preorder traversal.
+     * Adding the rest stops to another mountain in this order rebuilds a mountain of the same shape.
+     * @return an iterator over the rest stops in preorder
+     */
+    public Iterator<RestStop> preorderIterator() {
+        return new Iterator<RestStop>() {
+            // At most one pending right child per level, plus the two children of the current node
+            private final long[] stack = new long[height() + 2];
+            private int top = 0;
+
+            {
+                if (size != 0) {
+                    stack[top++] = 0;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return top > 0;
+            }
+
+            @Override
+            public RestStop next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long node = stack[--top];
+                if (getLong(node + RIGHT) != NONE) {
+                    stack[top++] = getLong(node + RIGHT);
+                }
+                if (getLong(node + LEFT) != NONE) {
+                    stack[top++] = getLong(node + LEFT);
+                }
+                return restStopAt(node);
+            }
+        };
+    }
+
+    /**
+     * Returns an iterator over the rest stops in order of the postorder traversal.
+     * @return an iterator over the rest stops in postorder
+     */
+    public Iterator<RestStop> postorderIterator() {
+        return new Iterator<RestStop>() {
+            // The path from the root to the next rest stop, which is its last entry
+            private final long[] stack = new long[height() + 1];
+            private int top = 0;
+
+            {
+                descend(size == 0 ? NONE : 0);
+            }
+
+            // Pushes the path down to the first rest stop of the subtree in postorder, going left whenever possible
+            private void descend(long node) {
+                while (node != NONE) {
+                    stack[top++] = node;
+                    long left = getLong(node + LEFT);
+                    node = left != NONE ? left : getLong(node + RIGHT);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return top > 0;
+            }
+
+            @Override
+            public RestStop next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long node = stack[--top];
+                // After a left subtree comes the right subtree of the same parent, and after that the parent itself
+                if (top > 0 && getLong(stack[top - 1] + LEFT) == node) {
+                    descend(getLong(stack[top - 1] + RIGHT));
+                }
+                return restStopAt(node);
+            }
+        };
+    }
+
+    /**
+     * Counts the feasible paths down the mountain, reading supplies straight from the buffers.
+     * Only paths reaching the full height of the mountain are counted, as in {@link MountainClimb}.
+     * The search allocates nothing per rest stop.
+     * @return the number of feasible paths from the summit to the base
+     */
+    public long countFeasiblePaths() {
+        return solve(null);
+    }
+
+    /**
+     * Finds every feasible path down the mountain, reading supplies straight from the buffers.
+     * Only paths reaching the full height of the mountain are returned, as in {@link MountainClimb}.
+     * @return the feasible paths from the summit to the base, ordered from left to right
+     */
+    public List<List<RestStop>> feasiblePaths() {
+        List<List<RestStop>> paths = new ArrayList<>();
+        solve(paths);
+        return paths;
+    }
+
+
+    /**
+     * Walks every full-height path with an explicit stack, collecting the feasible ones if requested.
+     * The hiker's supplies are kept in one reused array of counts per depth, and a child's counts are only
+     * computed when it is taken off the stack, by which time its parent's counts are still those of its path.
+     * @param paths the list receiving the feasible paths, or null if only the count is needed
+     * @return the number of feasible paths found
+     */
+    private long solve(List<List<RestStop>> paths) {
+        if (size == 0) {
+            return 0;
+        }
+        int levels = height();
+        int[][] counts = new int[levels][RULES.slots()];
+        long[] path = new long[levels];
+        // At most one pending sibling per level, plus the two children of the current node
+        long[] stackNodes = new long[levels + 1];
+        int[] stackDepths = new int[levels + 1];
+        int top = 0;
+        stackNodes[top] = 0;
+        stackDepths[top++] = 0;
+
+        long count = 0;
+        while (top > 0) {
+            long node = stackNodes[--top];
+            int depth = stackDepths[top];
+            int[] inventory = counts[depth];
+            if (depth == 0) {
+                Arrays.fill(inventory, 0);
+            } else {
+                System.arraycopy(counts[depth - 1], 0, inventory, 0, inventory.length);
+            }
+            if (!arrive(node, inventory, depth == 0)) {
+                continue;
+            }
+            path[depth] = node;
+
+            ByteBuffer segment = segment(node);
+            int position = position(node);
+            long left = segment.getLong(position + LEFT);
+            long right = segment.getLong(position + RIGHT);
+            if (left == NONE && right == NONE) {
+                count++;
+                if (paths != null) {
+                    List<RestStop> found = new ArrayList<>(depth + 1);
+                    for (int i = 0; i <= depth; i++) {
+                        found.add(restStopAt(path[i]));
+                    }
+                    paths.add(found);
+                }
+                continue;
+            }
+            // Push the right child first so that leaves are reached from left to right,
+            // skipping children whose subtree cannot reach the base of the mountain
+            int height = segment.getInt(position + HEIGHT);
+            if (right != NONE && getInt(right + HEIGHT) == height - 1) {
+                stackNodes[top] = right;
+                stackDepths[top++] = depth + 1;
+            }
+            if (left != NONE && getInt(left + HEIGHT) == height - 1) {
+                stackNodes[top] = left;
+                stackDepths[top++] = depth + 1;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Updates the hiker's supplies in place on arrival at a rest stop, following the same rules as
+     * {@link Inventory#arrive(RestStop, boolean)} but reading the supply codes straight from the buffer.
+     * @param node the offset of the rest stop
+     * @param counts the number of each supply before arriving, by slot, updated in place
+     * @param first true if this is the first rest stop of the path, which does not cost food
+     * @return false if the hiker cannot get past this rest stop
+     */
+    private boolean arrive(long node, int[] counts, boolean first) {
+        // Every step down the mountain costs one unit of the step cost
+        if (!first && --counts[RULES.stepCost()] < 0) {
+            return false;
+        }
+        ByteBuffer segment = segment(node);
+        int position = position(node);
+        int start = position + LABEL + 2 * segment.getInt(position + LABEL_LENGTH);
+        int end = start + segment.getInt(position + SUPPLY_COUNT);
+        // Handle the obstacles and supplies at the rest stop in order
+        for (int i = start; i < end; i++) {
+            int code = segment.get(i) & MAX_CODE;
+            int slot = RULES.consumes(code);
+            if (slot >= 0) {
+                if (--counts[slot] < 0) {
+                    return false;
+                }
+            } else {
+                counts[RULES.gives(code)]++;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares a label with the label of a stored node, with the same result as {@link String#compareTo(String)}.
+     * @param label the label to compare
+     * @param node the offset of the stored node
+     * @return a negative integer, zero, or a positive integer as the label is less than, equal to, or greater than the node's label
+     */
+    private int compareLabel(String label, long node) {
+        ByteBuffer segment = segment(node);
+        int position = position(node);
+        int length = segment.getInt(position + LABEL_LENGTH);
+        int limit = Math.min(label.length(), length);
+        for (int i = 0; i < limit; i++) {
+            char c = segment.getChar(position + LABEL + 2 * i);
+            if (label.charAt(i) != c) {
+                return label.charAt(i) - c;
+            }
+        }
+        return label.length() - length;
+    }
+
+    /**
+     * Returns the height of the subtree at the given offset.
+     * @param node the offset of the node, or -1 for no node
+     * @return the height of the subtree, or 0 if there is no node
+     */
+    private int heightOf(long node) {
+        return node == NONE ? 0 : getInt(node + HEIGHT);
+    }
+
+    /**
+     * Appends a record for a new leaf holding the given rest stop.
+     * @param e the rest stop to store
+     * @return the offset of the new record
+     * @throws IllegalArgumentException if the record does not fit in a segment or a rule code does not fit in a byte
+     */
+    private long append(RestStop e) throws IllegalArgumentException {
+        String label = e.getLabel();
+        int[] codes = e.getCodes();
+        for (int code : codes) {
+            if (code < 0 || code > MAX_CODE) {
+                throw new IllegalArgumentException("The rule code does not fit in a byte: " + code);
+            }
+        }
+        long bytes = LABEL + 2L * label.length() + codes.length;
+        if (bytes > 1L << segmentBits) {
+            throw new IllegalArgumentException("The rest stop does not fit in a segment: " + label.length() + " characters");
+        }
+        ByteBuffer segment = ensureCapacity((int) bytes);
+
+        long node = ((long) (segments.size() - 1) << segmentBits) | segment.position();
+        segment.putLong(NONE);
+        segment.putLong(NONE);
+        segment.putInt(1);
+        segment.putInt(label.length());
+        segment.putInt(codes.length);
+        for (int i = 0; i < label.length(); i++) {
+            segment.putChar(label.charAt(i));
+        }
+        for (int code : codes) {
+            segment.put((byte) code);
+        }
+        size++;
+        return node;
+    }
+
+    /**
+     * Rebuilds the rest stop stored at the given offset.
+     * @param node the offset of the record
+     * @return a rest stop with the stored label and supplies
+     */
+    private RestStop restStopAt(long node) {
+        ByteBuffer segment = segment(node);
+        int position = position(node);
+        int length = segment.getInt(position + LABEL_LENGTH);
+        int[] codes = new int[segment.getInt(position + SUPPLY_COUNT)];
+        char[] label = new char[length];
+        for (int i = 0; i < length; i++) {
+            label[i] = segment.getChar(position + LABEL + 2 * i);
+        }
+        int start = position + LABEL + 2 * length;
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = segment.get(start + i) & MAX_CODE;
+        }
+        return new RestStop(new String(label), codes);
+    }
+
+    /**
+     * Makes sure the last segment can hold the given number of additional bytes, doubling it if needed,
+     * or starts a new segment once the last one has reached the segment size.
+     * A file-backed segment is remapped over a larger region of the file.
+     * @param bytes the number of bytes about to be written, at most the segment size
+     * @return the segment to write the bytes to
+     * @throws IllegalStateException if the buffers cannot grow
+     */
+    private ByteBuffer ensureCapacity(int bytes) throws IllegalStateException {
+        int index = segments.size() - 1;
+        ByteBuffer last = segments.get(index);
+        if (last.remaining() >= bytes) {
+            return last;
+        }
+        long segmentSize = 1L << segmentBits;
+        long needed = (long) last.position() + bytes;
+        if (needed > segmentSize) {
+            // Records never span two segments, so the rest of this one stays unused
+            index++;
+            needed = bytes;
+            last = null;
+        }
+        int capacity = (int) Math.min(segmentSize,
+                Math.max(needed, last == null ? initialCapacity : 2L * last.capacity()));
+
+        ByteBuffer larger;
+        if (channel != null) {
+            try {
+                larger = channel.map(FileChannel.MapMode.READ_WRITE, (long) index << segmentBits, capacity);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Cannot grow the mapped file.", ex);
+            }
+            larger.position(last == null ? 0 : last.position());
+        } else {
+            larger = ByteBuffer.allocateDirect(capacity);
+            if (last != null) {
+                last.flip();
+                larger.put(last);
+            }
+        }
+        if (last == null) {
+            segments.add(larger);
+        } else {
+            segments.set(index, larger);
+        }
+        return larger;
+    }
+
+    /**
+     * Returns the segment holding the given offset.
+     * @param offset the offset
+     * @return the segment containing it
+     */
+    private ByteBuffer segment(long offset) {
+        return segments.get((int) (offset >>> segmentBits));
+    }
+
+    /**
+     * Returns the position of an offset within its segment.
+     * @param offset the offset
+     * @return the position within the segment
+     */
+    private int position(long offset) {
+        return (int) (offset & ((1L << segmentBits) - 1));
+    }
+
+    private long getLong(long offset) {
+        return segment(offset).getLong(position(offset));
+    }
+
+    private int getInt(long offset) {
+        return segment(offset).getInt(position(offset));
+    }
+
+    private static int checkSegmentBits(int segmentBits) throws IllegalArgumentException {
+        if (segmentBits < 8 || segmentBits > SEGMENT_BITS) {
+            throw new IllegalArgumentException("The segment size must be between 2^8 and 2^" + SEGMENT_BITS + " bytes.");
+        }
+        return segmentBits;
+    }
+
+    private static int checkCapacity(int capacity, int segmentBits) throws IllegalArgumentException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity must be positive: " + capacity);
+        }
+        return (int) Math.min(capacity, 1L << segmentBits);
+    }
+
+
+    /**
+     * A view of the record of one rest stop, read straight from the buffer. Getting the number of supplies
+     * or their names allocates nothing; the label is only decoded when asked for.
+     */
+    public final class View {
+
+        private long node;
+
+        private View() {
+        }
+
+        /**
+         * Gets the label of the rest stop.
+         * @return the label of the rest stop
+         */
+        public String getLabel() {
+            ByteBuffer segment = segment(node);
+            int position = position(node);
+            char[] label = new char[segment.getInt(position + LABEL_LENGTH)];
+            for (int i = 0; i < label.length; i++) {
+                label[i] = segment.getChar(position + LABEL + 2 * i);
+            }
+            return new String(label);
+        }
+
+        /**
+         * Gets the number of supplies and obstacles at the rest stop.
+         * @return the number of supplies
+         */
+        public int getSupplyCount() {
+            return getInt(node + SUPPLY_COUNT);
+        }
+
+        /**
+         * Gets the name of a supply or obstacle at the rest stop.
+         * @param index the position of the supply, in the order of {@link RestStop#getSupplies()}
+         * @return the name of the supply
+         * @throws IndexOutOfBoundsException if there is no such supply
+         */
+        public String getSupply(int index) throws IndexOutOfBoundsException {
+            ByteBuffer segment = segment(node);
+            int position = position(node);
+            int count = segment.getInt(position + SUPPLY_COUNT);
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+            }
+            return RULES.name(segment.get(position + LABEL + 2 * segment.getInt(position + LABEL_LENGTH) + index) & MAX_CODE);
+        }
+
+        /**
+         * Copies the record into a rest stop that stays valid after the view moves on.
+         * @return a rest stop with the stored label and supplies
+         */
+        public RestStop toRestStop() {
+            return restStopAt(node);
+        }
+
+        /**
+         * Returns the label of the rest stop.
+         * @return the label of the rest stop
+         */
+        @Override
+        public String toString() {
+            return getLabel();
+        }
+    }
+}
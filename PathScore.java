@@ -0,0 +1,91 @@
+package project Mountain;
+
+/**
+ * A pluggable scoring function used to pick the best path down the mountain.
+ * The score of a path is the sum of {@link #stop(RestStop)} over every rest stop on the path
+ * plus {@link #finish(Inventory)} for the inventory the hiker ends with. Keeping the score additive
+ * is what allows the solver to combine the results of child subtrees instead of enumerating paths.
+ *
+ * @author Leo Wu
+ */
+public interface PathScore {
+
+   /**
+    * Returns the contribution of a rest stop to the score of any path through it.
+    * @param stop the rest stop on the path
+    * @return the score contributed by the rest stop
+    */
+    double stop(RestStop stop);
+
+   /**
+    * Returns the contribution of the final inventory to the score of a path.
+    * @param inventory the inventory the hiker has at the end of the path
+    * @return the score contributed by the final inventory
+    */
+    double finish(Inventory inventory);
+
+
+   /**
+    * Returns an upper bound on {@link #finish(Inventory)} for any path continuing from the given inventory.
+    * Used to skip subtrees that cannot improve a ranked result. The default performs no pruning.
+    * @param inventory the inventory the hiker currently has
+    * @param gain for each supply, the most that can still be picked up on the way down
+    * @return an upper bound on the final inventory's contribution to the score
+    */
+    default double finishBound(Inventory inventory, Inventory gain) {
+        return Double.POSITIVE_INFINITY;
+    }
+
+   /**
+    * Returns a score that prefers paths finishing with the most supplies left.
+    * @return a score equal to the total number of supplies left at the end of the path
+    */
+    static PathScore mostSuppliesLeft() {
+        return new PathScore() {
+            @Override
+            public double stop(RestStop stop) {
+                return 0;
+            }
+
+            @Override
+            public double finish(Inventory inventory) {
+                return inventory.total();
+            }
+
+            @Override
+            public double finishBound(Inventory inventory, Inventory gain) {
+                return inventory.total() + gain.total();
+            }
+        };
+    }
+
+
+   /**
+    * Returns a score that prefers paths crossing the fewest obstacles.
+    * @return a score equal to minus the number of obstacles on the path
+    */
+    static PathScore fewestObstacles() {
+        return new PathScore() {
+            @Override
+            public double stop(RestStop stop) {
+                int obstacles = 0;
+                for (int code : stop.getCodes()) {
+                    if (SupplyRules.DEFAULT.isObstacle(code)) {
+                        obstacles++;
+                    }
+                }
+                return -obstacles;
+            }
+
+            @Override
+            public double finish(Inventory inventory) {
+                return 0;
+            }
+
+            @Override
+            public double finishBound(Inventory inventory, Inventory gain) {
+                return 0;
+            }
+        };
+    }
+}
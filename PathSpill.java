@@ -0,0 +1,194 @@
+package project Mountain;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * A sink for paths down the mountain that holds at most a fixed amount of them in memory.
+ * Paths are buffered until their estimated size reaches the memory budget, then the buffer is written to a
+ * temporary file as a run in the format of {@link CompactPaths} and cleared. Iterating reads the runs back one
+ * at a time, followed by the paths still buffered, so the paths come out in the order they were added while
+ * only one run is decoded at once. This lets mountains with more feasible paths than fit in the heap be solved.
+ *
+ * @author Leo Wu
+ */
+public class PathSpill implements Iterable<List<String>>, Closeable {
+
+    /**
+     * Estimated heap size of a buffered path, not counting its rest stops: the list and its array
+     */
+    private static final long PATH_OVERHEAD = 56;
+
+    /**
+     * Estimated heap size of each rest stop reference in a buffered path
+     */
+    private static final long STOP_SIZE = 8;
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private final List<List<RestStop>> buffer = new ArrayList<>();
+
+    private long bufferedBytes;
+
+    private final List<Path> runs = new ArrayList<>();
+
+    private long size;
+
+    private boolean closed;
+
+
+   /**
+    * Constructs an empty sink that spills to temporary files in the given directory.
+    * @param directory the directory for the spilled runs
+    * @param maxBytes the estimated size of the paths kept in memory before they are spilled, in bytes
+    * @throws IllegalArgumentException if the budget is not positive
+    */
+    public PathSpill(Path directory, long maxBytes) throws IllegalArgumentException {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("The memory budget must be positive.");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+
+   /**
+    * Adds a path, spilling the buffered paths to a new run if they exceed the memory budget.
+    * Every path added must start at the same rest stop. The sink keeps the list, so it must not be modified afterwards.
+    * @param path the rest stops of the path, from the summit down
+    * @throws IOException if a run cannot be written
+    * @throws IllegalStateException if the sink is closed
+    */
+    public void add(List<RestStop> path) throws IOException, IllegalStateException {
+        if (closed) {
+            throw new IllegalStateException("The sink is closed.");
+        }
+        buffer.add(path);
+        bufferedBytes += PATH_OVERHEAD + STOP_SIZE * path.size();
+        size++;
+        if (bufferedBytes >= maxBytes) {
+            spill();
+        }
+    }
+
+   /**
+    * Gets the number of paths added.
+    * @return the number of paths, both spilled and buffered
+    */
+    public long size() {
+        return size;
+    }
+
+   /**
+    * Gets the number of runs spilled to disk so far.
+    * @return the number of runs
+    */
+    public int runs() {
+        return runs.size();
+    }
+
+   /**
+    * Returns an iterator over the labels of the paths, in the order they were added.
+    * Spilled runs are read lazily, one at a time. The sink must not be changed while iterating.
+    * @return an iterator over the paths
+    * @throws UncheckedIOException from the iterator if a run cannot be read
+    */
+    @Override
+    public Iterator<List<String>> iterator() {
+        return new Iterator<List<String>>() {
+            private int run = 0;
+            private Iterator<List<String>> current = Collections.emptyIterator();
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && run < runs.size()) {
+                    current = readRun(runs.get(run++)).iterator();
+                }
+                return current.hasNext() || index < buffer.size();
+            }
+
+            @Override
+            public List<String> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (current.hasNext()) {
+                    return current.next();
+                }
+                List<String> labels = new ArrayList<>();
+                for (RestStop stop : buffer.get(index++)) {
+                    labels.add(stop.getLabel());
+                }
+                return labels;
+            }
+        };
+    }
+
+   /**
+    * Deletes the spilled runs and drops the buffered paths. The sink cannot be used afterwards.
+    * @throws IOException if a run cannot be deleted
+    */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        buffer.clear();
+        IOException failure = null;
+        for (Path run : runs) {
+            try {
+                Files.deleteIfExists(run);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        runs.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+
+    /**
+     * Writes the buffered paths to a new run and clears the buffer.
+     * @throws IOException if the run cannot be written
+     */
+    private void spill() throws IOException {
+        Path run = Files.createTempFile(directory, "paths", ".run");
+        try (OutputStream out = Files.newOutputStream(run)) {
+            CompactPaths.of(buffer).write(out);
+        } catch (IOException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        runs.add(run);
+        buffer.clear();
+        bufferedBytes = 0;
+    }
+
+    /**
+     * Reads a spilled run back.
+     * @param run the file of the run
+     * @return the paths of the run
+     * @throws UncheckedIOException if the run cannot be read
+     */
+    private static CompactPaths readRun(Path run) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(run))) {
+            return CompactPaths.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read spilled paths: " + run, e);
+        }
+    }
+}
@@ -1,12 +1,18 @@
 package project Mountain;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * This class represents a rest stop on a trail, storing supplies and a label.
  * Each RestStop object contains a list of supplies that could include food, 
  * tools, or natural features encountered at the stop.
+ * <p>
+ * Note that the natural ordering is inconsistent with {@link #equals(Object)}: rest stops are ordered by label
+ * only, while equality also compares the supplies. A mountain holds at most one rest stop per label, so
+ * {@code contains} finds a rest stop with the same label even if its supplies differ, whereas two such rest stops
+ * are not {@code equals}, and neither are mountains holding them.
  * 
  * @author Leo Wu
  */
@@ -15,8 +21,23 @@ public class RestStop implements Comparable<RestStop>{
 
     private String label ;
 
+    /**
+     * The first characters of the label packed into a number, so that most comparisons are a single primitive compare
+     */
+    private long sortKey;
+
     private List<String> supplies = new ArrayList<String>();
 
+    /**
+     * The rule codes of the supplies, in the same order, as compiled by {@link SupplyRules}
+     */
+    private int[] codes;
+
+    /**
+     * A 64-bit hash of the label and the supplies, computed once since neither changes after construction
+     */
+    private long contentHash;
+
 
    /**
     * Constructs a new RestStop object using the provided array of strings representing supplies.
@@ -26,45 +47,30 @@ public class RestStop implements Comparable<RestStop>{
     */
     public RestStop(String[] arr) {
     this.label = arr[0]; // Set the label of the rest stop
-    boolean isEnd = false; // Flag to track if the stop is the end of the journey
-    for (int i = 1; i < arr.length; i++) {
-        String supply = arr[i].trim(); // Trim the whitespace from the supply string
-        // Check if the stop is the end of the journey
-        if(isEnd){
-            // If the stop is the end, only "river" supply can be added
-            if("river".equals(supply)){
-                supplies.add(supply); // Add "river" supply
-            }else if("fallen".equals(supply)){
-                // If the stop is the end and followed by "fallen" supply, check for "tree" supply
-                if(i+1 < arr.length){
-                    i++;
-                    if("tree".equals(arr[i].trim())){
-                        supplies.add(supply+" "+arr[i].trim()); // Add "fallen tree" supply
-                    }
-                }
-            }
-        }else{
-            // If the stop is not the end
-            if("food".equals(supply) || "raft".equals(supply) || "axe".equals(supply) ||"river".equals(supply)){
-                // Add common supplies and mark the stop as the end if it has "river" supply
-                supplies.add(supply);
-                if("river".equals(supply)){
-                    isEnd = true;
-                }
-            }else if("fallen".equals(supply)){
-                // If the stop has "fallen" supply, check for "tree" supply and mark it as the end
-                if(i+1 < arr.length){
-                    i++;
-                    if("tree".equals(arr[i].trim())){
-                        supplies.add(supply+" "+arr[i]);
-                        isEnd = true; // Mark the stop as the end
-                    }
-                }
-            }
-        }
+    this.sortKey = sortKey(label); // Precompute the order-preserving key of the label
+    this.codes = SupplyRules.DEFAULT.parse(arr); // Parse the supplies and obstacles according to the rule table
+    for (int code : codes) {
+        supplies.add(SupplyRules.DEFAULT.name(code));
     }
+    this.contentHash = contentHash(label, codes); // Hash the content once for trees and hash sets
 }
 
+   /**
+    * Constructs a rest stop from a label and supplies that are already parsed, such as those stored by
+    * {@link OffHeapMountain}, without splitting or parsing any words.
+    * @param label the label of the rest stop
+    * @param codes the rule codes of the supplies in {@link SupplyRules#DEFAULT}, which must not be modified afterwards
+    */
+    RestStop(String label, int[] codes) {
+        this.label = label;
+        this.sortKey = sortKey(label);
+        this.codes = codes;
+        for (int code : codes) {
+            supplies.add(SupplyRules.DEFAULT.name(code));
+        }
+        this.contentHash = contentHash(label, codes);
+    }
+
 
    /**
     * Compares this rest stop with another based on their labels.
@@ -73,10 +79,63 @@ public class RestStop implements Comparable<RestStop>{
     */
     @Override
     public int compareTo(RestStop o) {
+        // Labels with different keys differ within their first characters, and the keys order them the same way
+        if (this.sortKey != o.sortKey) {
+            return Long.compareUnsigned(this.sortKey, o.sortKey);
+        }
         return this.label .compareTo(o.label );
     }
 
 
+   /**
+    * Packs the first four characters of a label into a key, padding shorter labels with zero characters.
+    * Comparing two keys as unsigned numbers gives the same order as comparing the labels, unless the keys are equal,
+    * in which case the labels have to be compared in full.
+    * @param label the label of a rest stop
+    * @return the order-preserving key of the label
+    */
+    static long sortKey(String label) {
+        long key = 0;
+        for (int i = 0; i < 4; i++) {
+            key = (key << 16) | (i < label.length() ? label.charAt(i) : 0);
+        }
+        return key;
+    }
+
+
+   /**
+    * Hashes a label and the codes of its supplies into 64 bits, character by character and code by code, so that
+    * unlike the 32-bit hash code of a string, two rest stops with different contents are very unlikely to collide.
+    * @param label the label of a rest stop
+    * @param codes the rule codes of its supplies
+    * @return the content hash
+    */
+    private static long contentHash(String label, int[] codes) {
+        long hash = label.length();
+        for (int i = 0; i < label.length(); i++) {
+            hash = scramble(hash ^ label.charAt(i));
+        }
+        // The number of codes keeps the label and the codes apart
+        hash = scramble(hash ^ ((long) codes.length << 32));
+        for (int code : codes) {
+            hash = scramble(hash ^ code);
+        }
+        return hash;
+    }
+
+
+   /**
+    * Multiplies and shifts the bits of a value so that every input bit affects every output bit.
+    * @param value the value to scramble
+    * @return the scrambled value
+    */
+    private static long scramble(long value) {
+        value *= 0x9e3779b97f4a7c15L;
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        return value ^ (value >>> 31);
+    }
+
+
    /**
     * Gets the label of the rest stop.
     * @return the label of the rest stop
@@ -95,6 +154,54 @@ public class RestStop implements Comparable<RestStop>{
     }
 
 
+   /**
+    * Gets the 64-bit hash of the label and supplies of the rest stop, consistent with {@link #equals(Object)}.
+    * @return the content hash
+    */
+    long getContentHash() {
+        return contentHash;
+    }
+
+
+   /**
+    * Gets the rule codes of the supplies available at the rest stop, in the same order as {@link #getSupplies()}.
+    * @return the codes of the supplies in {@link SupplyRules#DEFAULT}
+    */
+    int[] getCodes() {
+        return codes;
+    }
+
+
+   /**
+    * Compares this rest stop with the specified object for equality.
+    * Two rest stops are equal if they have the same label and the same supplies in the same order.
+    * @param o the object to be compared
+    * @return true if the object is a rest stop with the same label and supplies
+    */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RestStop)) {
+            return false;
+        }
+        RestStop other = (RestStop) o;
+        // The codes name the supplies one for one, and are cheaper to compare
+        return contentHash == other.contentHash && label.equals(other.label) && Arrays.equals(codes, other.codes);
+    }
+
+
+   /**
+    * Returns a hash code consistent with {@link #equals(Object)}, folded from the content hash.
+    * @return the hash code of this rest stop
+    */
+    @Override
+    public int hashCode() {
+        return (int) (contentHash ^ (contentHash >>> 32));
+    }
+
+
    /**
     * Returns the label of the rest stop when converted to a string.
     * @return the label of the rest stop
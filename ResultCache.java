@@ -0,0 +1,242 @@
+package project Mountain;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A local on-disk cache of solved maps, keyed by the content of the map file and the solver parameters.
+ * Solving a byte-identical map with the same parameters again returns the stored feasible paths instead of
+ * parsing, searching and simulating. Entries are compact binary files read back through a memory mapping,
+ * and the cache is kept within a size budget and a maximum age, evicting the least recently used entries first.
+ *
+ * <p>An entry holds each distinct label once, followed by every path as a list of indices into the labels.
+ *
+ * @author Leo Wu
+ */
+public class ResultCache {
+
+    private static final int MAGIC = 0x4d434331; // "MCC1"
+
+    private static final String SUFFIX = ".paths";
+
+    private final Path directory;
+
+    private final long maxBytes;
+
+    private final long maxAgeMillis;
+
+
+    /**
+     * Constructs a cache stored in the given directory, creating the directory if needed.
+     * @param directory the directory holding the cache entries
+     * @param maxBytes the largest total size of the entries, in bytes
+     * @param maxAgeMillis the longest time an entry is kept since it was last used, in milliseconds
+     * @throws IOException if the directory cannot be created
+     * @throws IllegalArgumentException if the size or age limit is not positive
+     */
+    public ResultCache(Path directory, long maxBytes, long maxAgeMillis) throws IOException, IllegalArgumentException {
+        if (maxBytes <= 0 || maxAgeMillis <= 0) {
+            throw new IllegalArgumentException("The size and age limits must be positive.");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        Files.createDirectories(directory);
+    }
+
+
+    /**
+     * Returns the cached feasible paths for a map, if there are any.
+     * An entry that is truncated or corrupt is deleted and treated as a miss.
+     * @param map the content of the map file
+     * @param parameters a description of the solver parameters; results are only shared between identical parameters
+     * @return the labels of the rest stops on each feasible path, in the order they were stored, or null on a miss
+     * @throws IOException if the entry exists but cannot be read
+     */
+    public List<List<String>> get(byte[] map, String parameters) throws IOException {
+        Path entry = entryFor(map, parameters);
+        if (!Files.exists(entry)) {
+            return null;
+        }
+        List<List<String>> paths;
+        try (FileChannel channel = FileChannel.open(entry, StandardOpenOption.READ)) {
+            paths = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+        if (paths == null) {
+            Files.deleteIfExists(entry);
+            return null;
+        }
+        // Mark the entry as recently used
+        entry.toFile().setLastModified(System.currentTimeMillis());
+        return paths;
+    }
+
+    /**
+     * Stores the feasible paths for a map, then evicts entries that are too old or exceed the size budget.
+     * @param map the content of the map file
+     * @param parameters a description of the solver parameters
+     * @param paths the feasible paths found for the map
+     * @throws IOException if the entry cannot be written
+     */
+    public void put(byte[] map, String parameters, List<List<RestStop>> paths) throws IOException {
+        Map<String, Integer> index = new HashMap<>();
+        List<String> labels = new ArrayList<>();
+        for (List<RestStop> path : paths) {
+            for (RestStop stop : path) {
+                if (index.putIfAbsent(stop.getLabel(), labels.size()) == null) {
+                    labels.add(stop.getLabel());
+                }
+            }
+        }
+
+        // Write to a temporary file first so that readers never see a partial entry
+        Path entry = entryFor(map, parameters);
+        Path temp = Files.createTempFile(directory, "entry", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(labels.size());
+            for (String label : labels) {
+                byte[] bytes = label.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.writeInt(paths.size());
+            for (List<RestStop> path : paths) {
+                out.writeInt(path.size());
+                for (RestStop stop : path) {
+                    out.writeInt(index.get(stop.getLabel()));
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        evict();
+    }
+
+
+    /**
+     * Decodes the paths of an entry, checking every length and label index against the entry.
+     * @param buffer the content of the entry
+     * @return the labels of the rest stops on each path, or null if the entry is truncated or corrupt
+     */
+    private static List<List<String>> decode(ByteBuffer buffer) {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                return null;
+            }
+            int labelCount = buffer.getInt();
+            // Each label takes at least its four-byte length
+            if (labelCount < 0 || labelCount > buffer.remaining() / 4) {
+                return null;
+            }
+            String[] labels = new String[labelCount];
+            for (int i = 0; i < labels.length; i++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    return null;
+                }
+                byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                labels[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int count = buffer.getInt();
+            if (count < 0 || count > buffer.remaining() / 4) {
+                return null;
+            }
+            List<List<String>> paths = new ArrayList<>(count);
+            for (int p = 0; p < count; p++) {
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining() / 4) {
+                    return null;
+                }
+                String[] path = new String[length];
+                for (int i = 0; i < path.length; i++) {
+                    int index = buffer.getInt();
+                    if (index < 0 || index >= labels.length) {
+                        return null;
+                    }
+                    path[i] = labels[index];
+                }
+                paths.add(Arrays.asList(path));
+            }
+            return buffer.hasRemaining() ? null : paths;
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the file of the entry for a map and solver parameters, named by a SHA-256 hash of both.
+     * @param map the content of the map file
+     * @param parameters a description of the solver parameters
+     * @return the path of the entry
+     */
+    private Path entryFor(byte[] map, String parameters) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+        digest.update(parameters.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(map);
+        StringBuilder name = new StringBuilder();
+        for (byte b : digest.digest()) {
+            name.append(String.format("%02x", b));
+        }
+        return directory.resolve(name.append(SUFFIX).toString());
+    }
+
+    /**
+     * Deletes entries not used within the maximum age, then the least recently used entries until the cache fits its budget.
+     */
+    private void evict() {
+        File[] entries = directory.toFile().listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (entries == null) {
+            return;
+        }
+        // Read each time once, since other processes may touch entries while they are sorted
+        long[][] times = new long[entries.length][];
+        for (int i = 0; i < entries.length; i++) {
+            times[i] = new long[]{entries[i].lastModified(), i};
+        }
+        // Oldest first
+        Arrays.sort(times, Comparator.comparingLong(time -> time[0]));
+        long now = System.currentTimeMillis();
+        long total = 0;
+        for (File entry : entries) {
+            total += entry.length();
+        }
+        for (long[] time : times) {
+            if (now - time[0] <= maxAgeMillis && total <= maxBytes) {
+                break;
+            }
+            File entry = entries[(int) time[1]];
+            long length = entry.length();
+            if (entry.delete()) {
+                total -= length;
+            }
+        }
+    }
+}
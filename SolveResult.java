@@ -0,0 +1,92 @@
+package project Mountain;
+
+import java.util.List;
+
+/**
+ * The outcome of a search that may have been stopped by a deadline: the feasible paths found so far and
+ * how far the search got.
+ *
+ * @author Leo Wu
+ */
+public class SolveResult {
+
+    private final List<List<RestStop>> paths;
+
+    private final boolean complete;
+
+    private final long visited;
+
+    private final double explored;
+
+    private final long elapsedNanos;
+
+
+   /**
+    * Constructs the result of a search.
+    * @param paths the feasible paths found, ordered from left to right
+    * @param complete true if the whole mountain was searched
+    * @param visited the number of rest stops visited
+    * @param explored the fraction of the search space that was fully explored, between 0 and 1
+    * @param elapsedNanos the time the search took, in nanoseconds
+    */
+    SolveResult(List<List<RestStop>> paths, boolean complete, long visited, double explored, long elapsedNanos) {
+        this.paths = paths;
+        this.complete = complete;
+        this.visited = visited;
+        this.explored = explored;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+
+   /**
+    * Gets the feasible paths found, ordered from left to right. If the search is complete these are all of them.
+    * @return the feasible paths found
+    */
+    public List<List<RestStop>> getPaths() {
+        return paths;
+    }
+
+   /**
+    * Returns true if the search finished before the deadline, so that every feasible path was found.
+    * @return true if the search is complete
+    */
+    public boolean isComplete() {
+        return complete;
+    }
+
+   /**
+    * Gets the number of rest stops the search visited.
+    * @return the number of rest stops visited
+    */
+    public long getVisited() {
+        return visited;
+    }
+
+   /**
+    * Gets the fraction of the search space that was fully explored. Each rest stop's share of the search space
+    * is split evenly between the children that lie on a full-height path, and a share counts as explored once
+    * its subtree has been searched or ruled out.
+    * @return the explored fraction, 1 if the search is complete
+    */
+    public double getExplored() {
+        return explored;
+    }
+
+   /**
+    * Gets the time the search took.
+    * @return the elapsed time in nanoseconds
+    */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+   /**
+    * Returns a one-line summary of the search.
+    * @return the number of paths found and the progress of the search
+    */
+    @Override
+    public String toString() {
+        return String.format("%d paths, %s, %d rest stops visited, %.1f%% explored in %d ms", paths.size(),
+                complete ? "complete" : "stopped early", visited, explored * 100, elapsedNanos / 1000000);
+    }
+}
@@ -0,0 +1,282 @@
+package project Mountain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The rules for what a hiker finds at rest stops, compiled from a declarative table.
+ * Each row of the table names something that can appear at a rest stop and says whether it is a supply
+ * the hiker picks up or an obstacle that costs the hiker one unit of a supply. At startup the table is compiled
+ * into dense arrays indexed by a small integer code, so applying a rule on the hot path is an array lookup
+ * instead of a chain of string comparisons. Adding a new obstacle type only takes a new row.
+ *
+ * @author Leo Wu
+ */
+public final class SupplyRules {
+
+    private static final String SUPPLY = "supply";
+    private static final String OBSTACLE = "obstacle";
+    private static final int NONE = -1;
+
+    /**
+     * The rules: the name as written in a map file, its kind, and the supply it gives or costs.
+     * Obstacles may only be followed by other obstacles at a rest stop.
+     */
+    private static final String[][] TABLE = {
+        {"food",        SUPPLY,   "food"},
+        {"raft",        SUPPLY,   "raft"},
+        {"axe",         SUPPLY,   "axe"},
+        {"river",       OBSTACLE, "raft"},
+        {"fallen tree", OBSTACLE, "axe"},
+    };
+
+    /**
+     * The supply every step down the mountain costs
+     */
+    private static final String STEP_COST = "food";
+
+    /**
+     * The rules used throughout the simulation.
+     */
+    public static final SupplyRules DEFAULT = new SupplyRules(TABLE, STEP_COST);
+
+
+    /**
+     * The name of each rule, by code
+     */
+    private final String[] names;
+
+    /**
+     * The words of each rule's name, by code
+     */
+    private final String[][] words;
+
+    /**
+     * The supply slot each rule gives, by code, or -1 for obstacles
+     */
+    private final int[] gives;
+
+    /**
+     * The supply slot each rule costs, by code, or -1 for supplies
+     */
+    private final int[] consumes;
+
+    /**
+     * The name of each supply, by slot
+     */
+    private final String[] supplies;
+
+    /**
+     * The supply slot every step costs
+     */
+    private final int stepCost;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+
+   /**
+    * Compiles a rule table.
+    * @param table rows of {name, "supply" or "obstacle", supply}
+    * @param stepCost the supply every step down the mountain costs
+    * @throws IllegalArgumentException if a row is malformed, a name appears twice, or the step cost is not a supply
+    */
+    public SupplyRules(String[][] table, String stepCost) throws IllegalArgumentException {
+        names = new String[table.length];
+        words = new String[table.length][];
+        gives = new int[table.length];
+        consumes = new int[table.length];
+        List<String> supplyNames = new ArrayList<>();
+        for (int code = 0; code < table.length; code++) {
+            String[] row = table[code];
+            if (row.length != 3 || !(SUPPLY.equals(row[1]) || OBSTACLE.equals(row[1]))) {
+                throw new IllegalArgumentException("Malformed rule at row " + code);
+            }
+            if (codes.put(row[0], code) != null) {
+                throw new IllegalArgumentException("Duplicate rule: " + row[0]);
+            }
+            // Give each distinct supply a slot in the order it first appears
+            Integer slot = slots.get(row[2]);
+            if (slot == null) {
+                slot = supplyNames.size();
+                slots.put(row[2], slot);
+                supplyNames.add(row[2]);
+            }
+            names[code] = row[0];
+            words[code] = row[0].split(" ");
+            gives[code] = SUPPLY.equals(row[1]) ? slot : -1;
+            consumes[code] = OBSTACLE.equals(row[1]) ? slot : -1;
+        }
+        supplies = supplyNames.toArray(new String[0]);
+        Integer step = slots.get(stepCost);
+        if (step == null) {
+            throw new IllegalArgumentException("Unknown step cost: " + stepCost);
+        }
+        this.stepCost = step;
+    }
+
+
+   /**
+    * Parses the supplies of a rest stop from the words following its label in a map file.
+    * Names of several words are matched word by word. Unknown words are ignored, and once an obstacle
+    * has been seen only further obstacles are kept.
+    * @param arr the words of a map file line, where the first element is the label of the rest stop
+    * @return the codes of the supplies and obstacles at the rest stop, in order
+    */
+    public int[] parse(String[] arr) {
+        int[] parsed = new int[arr.length];
+        int count = 0;
+        boolean isEnd = false; // Flag to track if an obstacle has been seen
+        for (int i = 1; i < arr.length; i++) {
+            String word = arr[i].trim();
+            int code = NONE;
+            int skip = 0;
+            for (int candidate = 0; candidate < words.length && code == NONE; candidate++) {
+                String[] name = words[candidate];
+                if (!name[0].equals(word) || i + name.length > arr.length) {
+                    continue;
+                }
+                // A name of several words consumes the following words, whether or not they match
+                skip = Math.max(skip, name.length - 1);
+                if (matches(arr, i, name)) {
+                    code = candidate;
+                    skip = name.length - 1;
+                }
+            }
+            i += skip;
+            if (code == NONE || (isEnd && consumes[code] < 0)) {
+                continue;
+            }
+            parsed[count++] = code;
+            if (consumes[code] >= 0) {
+                isEnd = true;
+            }
+        }
+        int[] result = new int[count];
+        System.arraycopy(parsed, 0, result, 0, count);
+        return result;
+    }
+
+   /**
+    * Returns the code of a rule.
+    * @param name the name of the supply or obstacle
+    * @return the code of the rule, or -1 if there is no such rule
+    */
+    public int code(String name) {
+        Integer code = codes.get(name);
+        return code == null ? NONE : code;
+    }
+
+   /**
+    * Returns the name of a rule.
+    * @param code the code of the rule
+    * @return the name of the supply or obstacle
+    */
+    public String name(int code) {
+        return names[code];
+    }
+
+   /**
+    * Returns the number of rules.
+    * @return the number of rules
+    */
+    public int size() {
+        return names.length;
+    }
+
+   /**
+    * Returns the slot a hiker's inventory uses for a supply.
+    * @param supply the name of the supply
+    * @return the slot of the supply, or -1 if there is no such supply
+    */
+    public int slot(String supply) {
+        Integer slot = slots.get(supply);
+        return slot == null ? NONE : slot;
+    }
+
+   /**
+    * Returns the name of the supply kept in an inventory slot.
+    * @param slot the inventory slot
+    * @return the name of the supply
+    */
+    public String supply(int slot) {
+        return supplies[slot];
+    }
+
+   /**
+    * Returns the number of distinct supplies, which is the number of slots in an inventory.
+    * @return the number of inventory slots
+    */
+    public int slots() {
+        return supplies.length;
+    }
+
+   /**
+    * Returns the inventory slot a rule gives one unit of.
+    * @param code the code of the rule
+    * @return the slot of the supply picked up, or -1 if the rule is an obstacle
+    */
+    public int gives(int code) {
+        return gives[code];
+    }
+
+   /**
+    * Returns the inventory slot a rule costs one unit of.
+    * @param code the code of the rule
+    * @return the slot of the supply needed, or -1 if the rule is a supply
+    */
+    public int consumes(int code) {
+        return consumes[code];
+    }
+
+   /**
+    * Returns true if a rule is an obstacle.
+    * @param code the code of the rule
+    * @return true if the rule costs a supply
+    */
+    public boolean isObstacle(int code) {
+        return consumes[code] >= 0;
+    }
+
+   /**
+    * Returns the inventory slot every step down the mountain costs.
+    * @return the slot of the step cost
+    */
+    public int stepCost() {
+        return stepCost;
+    }
+
+   /**
+    * Returns a description of the compiled rules, which changes whenever the rule table does.
+    * @return every rule with its kind and supply, followed by the step cost
+    */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int code = 0; code < names.length; code++) {
+            result.append(names[code]).append(consumes[code] >= 0 ? " costs " : " gives ")
+                  .append(supplies[consumes[code] >= 0 ? consumes[code] : gives[code]]).append("; ");
+        }
+        return result.append("each step costs ").append(supplies[stepCost]).toString();
+    }
+
+
+   /**
+    * Checks whether the words of a name appear in the array starting at the given position.
+    * @param arr the words of a map file line
+    * @param start the position of the first word
+    * @param name the words of the name
+    * @return true if every word matches
+    */
+    private static boolean matches(String[] arr, int start, String[] name) {
+        for (int k = 0; k < name.length; k++) {
+            if (!name[k].equals(arr[start + k].trim())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}